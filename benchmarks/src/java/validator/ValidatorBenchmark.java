@@ -0,0 +1,122 @@
+package validator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency of MyValidator.validate() on representative models, each one either
+ * entirely valid or entirely invalid.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+  /**
+   * A list of @AnyOf values.
+   */
+  @Constrained
+  static class Tagged {
+
+    Tagged(List<String> tags) {
+      this.tags = tags;
+    }
+
+    @NotNull
+    final List<@AnyOf({"Linear", "Box", "Heatmap", "Histogram", "Violin"}) String> tags;
+  }
+
+  /**
+   * A link of a long chain of nested objects.
+   */
+  @Constrained
+  static class Node {
+
+    Node(int value, Node next) {
+      this.value = value;
+      this.next = next;
+    }
+
+    @Positive
+    final int value;
+    final Node next;
+  }
+
+  @Param({"true", "false"})
+  public boolean valid;
+
+  // Plans generated at compile time against fields read with reflection.
+  @Param({"GENERATED", "REFLECTION"})
+  public AccessMode accessMode;
+
+  @Setup
+  public void setUp() {
+    validator = new MyValidator(accessMode);
+    guestForm = guest(0);
+    List<GuestForm> guests = new ArrayList<>();
+    for (int i = 0; i < 5; ++i) {
+      guests.add(guest(i));
+    }
+    bookingForm = valid
+        ? new BookingForm(guests, List.of("TV", "Kitchen"), "House", new Unrelated(1))
+        : new BookingForm(guests, List.of("TV", "Piano"), "Castle", null);
+    tagged = new Tagged(Collections.nCopies(LIST_SIZE, valid ? "Violin" : "Pie"));
+    Node node = null;
+    for (int i = 0; i < CHAIN_LENGTH; ++i) {
+      node = new Node(valid ? i + 1 : -i, node);
+    }
+    chain = node;
+  }
+
+  @Benchmark
+  public Set<ValidationError> flatGuestForm() {
+    return validator.validate(guestForm);
+  }
+
+  @Benchmark
+  public Set<ValidationError> nestedBookingForm() {
+    return validator.validate(bookingForm);
+  }
+
+  @Benchmark
+  public Set<ValidationError> largeAnyOfList() {
+    return validator.validate(tagged);
+  }
+
+  @Benchmark
+  public Set<ValidationError> deepNesting() {
+    return validator.validate(chain);
+  }
+
+  private GuestForm guest(int i) {
+    return valid
+        ? new GuestForm("Daria" + i, "Skrypina", 19 + i)
+        : new GuestForm(null, " ", 300 + i);
+  }
+
+  private static final int LIST_SIZE = 10_000;
+  private static final int CHAIN_LENGTH = 1_000;
+
+  private Validator validator;
+  private GuestForm guestForm;
+  private BookingForm bookingForm;
+  private Tagged tagged;
+  private Node chain;
+}
@@ -0,0 +1,20 @@
+package validator;
+
+/**
+ * Defines how a validator reads values of checked fields.
+ */
+public enum AccessMode {
+
+  /**
+   * Fields of classes processed by ConstrainedProcessor are read by the plans it generated at
+   * compile time, which read each field directly or through its getter, like hand-written code.
+   * Fields of other classes are read with reflection. This is the default.
+   */
+  GENERATED,
+
+  /**
+   * Fields are read with java.lang.reflect.Field, even if a plan was generated for their class.
+   * Values of byte, short, int and long fields are checked without boxing them.
+   */
+  REFLECTION
+}
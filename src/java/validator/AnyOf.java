@@ -13,4 +13,9 @@ import java.lang.annotation.Target;
 public @interface AnyOf {
 
   String[] value();
+
+  /**
+   * @return groups the constraint belongs to. A constraint without groups belongs to Default.
+   */
+  Class<?>[] groups() default {};
 }
@@ -12,4 +12,11 @@ import java.lang.annotation.Target;
 @Target({ElementType.TYPE})
 public @interface Constrained {
 
+  /**
+   * Marks objects of the class as never changing after construction, together with everything
+   * reachable from them. Validators with a result cache remember the results of such objects.
+   *
+   * @return true if the objects are deeply immutable.
+   */
+  boolean immutable() default false;
 }
@@ -0,0 +1,471 @@
+package validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a GeneratedPlan for each class marked with @Constrained, so validators don't need
+ * reflection to find its fields and annotations. Classes that can't be read without reflection
+ * (local, anonymous or generic classes, private fields without a getter, custom constraints) are
+ * skipped and validated through reflection as before.
+ */
+@SupportedAnnotationTypes("validator.Constrained")
+public class ConstrainedProcessor extends AbstractProcessor {
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(Constrained.class)) {
+      if (element instanceof TypeElement) {
+        generatePlan((TypeElement) element);
+      }
+    }
+    if (roundEnv.processingOver() && !processedPlans.isEmpty()) {
+      writeServiceFile();
+    }
+    return false;
+  }
+
+  /**
+   * Writes the source of the plan of given class.
+   *
+   * @param type class marked with @Constrained.
+   */
+  private void generatePlan(TypeElement type) {
+    processedPlans.add(GeneratedPlans.planName(
+        processingEnv.getElementUtils().getBinaryName(type).toString()));
+    String skipReason = findSkipReason(type);
+    if (skipReason != null) {
+      note(type, "Validation plan is not generated, " + skipReason);
+      return;
+    }
+    List<String> fieldDeclarations = new ArrayList<>();
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      String getter = getterExpression(type, field);
+      if (getter == null) {
+        note(type, "Validation plan is not generated, field " + field.getSimpleName()
+            + " is private and has no getter.");
+        return;
+      }
+      // Generated fields only describe the annotations of first type arguments, level by level.
+      if (hasUnsupportedElementAnnotations(field.asType())) {
+        note(type, "Validation plan is not generated, field " + field.getSimpleName()
+            + " has annotated array components or type arguments other than the first.");
+        return;
+      }
+      // Custom constraints can't be recreated without reflection, and their validators are only
+      // known at run time.
+      if (hasCustomConstraints(field.asType())) {
+        note(type, "Validation plan is not generated, field " + field.getSimpleName()
+            + " has custom constraints.");
+        return;
+      }
+      fieldDeclarations.add(fieldDeclaration(type, field, getter));
+    }
+    String packageName = getPackage(type).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String planName = GeneratedPlans.planName(binaryName);
+    String simplePlanName = planName.substring(planName.lastIndexOf('.') + 1);
+    String typeName = type.getQualifiedName().toString();
+    StringBuilder source = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source.append("@javax.annotation.processing.Generated(\"")
+        .append(ConstrainedProcessor.class.getName()).append("\")\n")
+        .append("public final class ").append(simplePlanName)
+        .append(" implements validator.GeneratedPlan<").append(typeName).append("> {\n\n")
+        .append("  @Override\n")
+        .append("  public Class<").append(typeName).append("> type() {\n")
+        .append("    return ").append(typeName).append(".class;\n")
+        .append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public java.util.List<validator.GeneratedField<").append(typeName)
+        .append(">> fields() {\n")
+        .append("    return java.util.List.of(");
+    for (int i = 0; i < fieldDeclarations.size(); ++i) {
+      source.append(i == 0 ? "\n        " : ",\n        ").append(fieldDeclarations.get(i));
+    }
+    source.append(");\n")
+        .append("  }\n")
+        .append("}\n");
+    try (Writer writer = processingEnv.getFiler().createSourceFile(planName, type).openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR,
+          "Cannot write validation plan: " + e.getMessage(), type);
+      return;
+    }
+    generatedPlans.add(planName);
+  }
+
+  /**
+   * @param type class marked with @Constrained.
+   * @return why the plan of the class can't be generated, or null if it can.
+   */
+  private String findSkipReason(TypeElement type) {
+    if (type.getKind() != ElementKind.CLASS) {
+      return "only classes are supported.";
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      return "generic classes are not supported.";
+    }
+    // The plan lives in the same package and must be able to name the class.
+    for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      TypeElement enclosing = (TypeElement) e;
+      if (enclosing.getNestingKind() == NestingKind.LOCAL
+          || enclosing.getNestingKind() == NestingKind.ANONYMOUS) {
+        return "local and anonymous classes are not supported.";
+      }
+      if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+        return "private classes are not supported.";
+      }
+      if (enclosing.getNestingKind() == NestingKind.MEMBER
+          && !enclosing.getModifiers().contains(Modifier.STATIC)) {
+        return "inner classes are not supported.";
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Builds an expression that reads the field of object 'o'.
+   *
+   * @param type  class where the field resides.
+   * @param field the field.
+   * @return expression reading the field, or null if the field can't be read.
+   */
+  private String getterExpression(TypeElement type, VariableElement field) {
+    String name = field.getSimpleName().toString();
+    boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+    if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+      return (isStatic ? type.getQualifiedName().toString() : "o") + "." + name;
+    }
+    String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+      String methodName = method.getSimpleName().toString();
+      boolean named = methodName.equals("get" + capitalized)
+          || methodName.equals("is" + capitalized);
+      if (named
+          && method.getParameters().isEmpty()
+          && !method.getModifiers().contains(Modifier.PRIVATE)
+          && method.getModifiers().contains(Modifier.STATIC) == isStatic
+          && processingEnv.getTypeUtils().isSameType(
+          processingEnv.getTypeUtils().erasure(method.getReturnType()),
+          processingEnv.getTypeUtils().erasure(field.asType()))) {
+        return (isStatic ? type.getQualifiedName().toString() : "o") + "." + methodName + "()";
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Builds an expression that creates the GeneratedField of given field.
+   *
+   * @param owner  class where the field resides.
+   * @param field  the field.
+   * @param getter expression reading the field of object 'o'.
+   * @return source of the field description.
+   */
+  private String fieldDeclaration(TypeElement owner, VariableElement field, String getter) {
+    TypeMirror type = field.asType();
+    String name = "\"" + field.getSimpleName() + "\"";
+    // Type witness lets the lambda know the class of 'o'.
+    String factory = "validator.GeneratedField.<" + owner.getQualifiedName() + ">";
+    String typeLiteral = typeName(type) + ".class";
+    TypeKind kind = type.getKind();
+    if (kind == TypeKind.BYTE || kind == TypeKind.SHORT
+        || kind == TypeKind.INT || kind == TypeKind.LONG) {
+      StringBuilder declaration = new StringBuilder(factory).append("ofWholeNumber(")
+          .append(name).append(", ").append(typeLiteral).append(", o -> ").append(getter);
+      for (String annotation : annotationLiterals(type)) {
+        declaration.append(", ").append(annotation);
+      }
+      return declaration.append(")").toString();
+    }
+    StringBuilder declaration = new StringBuilder(factory).append("of(")
+        .append(name).append(", ").append(typeLiteral).append(", o -> ").append(getter)
+        .append(", ").append(annotationArray(type));
+    // Annotations of list elements, then of inner list elements and so on.
+    TypeMirror level = type;
+    while (level instanceof DeclaredType && !((DeclaredType) level).getTypeArguments().isEmpty()) {
+      level = ((DeclaredType) level).getTypeArguments().get(0);
+      declaration.append(",\n            ").append(annotationArray(level));
+    }
+    return declaration.append(")").toString();
+  }
+
+  /**
+   * @param type type of a field.
+   * @return true if annotations of this library are applied to an array component, or to a type
+   *     argument other than the first one, at any level.
+   */
+  private boolean hasUnsupportedElementAnnotations(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return hasAnnotations(((ArrayType) type).getComponentType());
+    }
+    if (type instanceof DeclaredType) {
+      List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+      for (int i = 1; i < arguments.size(); ++i) {
+        if (hasAnnotations(arguments.get(i))) {
+          return true;
+        }
+      }
+      return !arguments.isEmpty() && hasUnsupportedElementAnnotations(arguments.get(0));
+    }
+    return false;
+  }
+
+  /**
+   * @param type a type.
+   * @return true if annotations of this library are applied to the type or to any type within it.
+   */
+  private boolean hasAnnotations(TypeMirror type) {
+    if (!annotationLiterals(type).isEmpty()) {
+      return true;
+    }
+    if (type.getKind() == TypeKind.ARRAY) {
+      return hasAnnotations(((ArrayType) type).getComponentType());
+    }
+    if (type instanceof DeclaredType) {
+      for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+        if (hasAnnotations(argument)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param type a type.
+   * @return true if annotations marked with @CustomConstraint are applied to the type or to any
+   *     type within it.
+   */
+  private boolean hasCustomConstraints(TypeMirror type) {
+    for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+      if (mirror.getAnnotationType().asElement().getAnnotation(CustomConstraint.class) != null) {
+        return true;
+      }
+    }
+    if (type.getKind() == TypeKind.ARRAY) {
+      return hasCustomConstraints(((ArrayType) type).getComponentType());
+    }
+    if (type instanceof DeclaredType) {
+      for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+        if (hasCustomConstraints(argument)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param type type of a field.
+   * @return name of the erased type without type annotations, usable in a class literal.
+   */
+  private String typeName(TypeMirror type) {
+    TypeKind kind = type.getKind();
+    if (kind.isPrimitive()) {
+      return kind.name().toLowerCase();
+    }
+    if (kind == TypeKind.ARRAY) {
+      return typeName(((ArrayType) type).getComponentType()) + "[]";
+    }
+    if (kind == TypeKind.DECLARED) {
+      return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+    // Type variables and the like are replaced by their bounds.
+    return typeName(processingEnv.getTypeUtils().erasure(type));
+  }
+
+  private String annotationArray(TypeMirror type) {
+    return "new java.lang.annotation.Annotation[] {"
+        + String.join(", ", annotationLiterals(type)) + "}";
+  }
+
+  /**
+   * Converts the annotations of this library applied to given type into ConstraintLiterals calls.
+   *
+   * @param type annotated type.
+   * @return expressions creating the annotations.
+   */
+  private List<String> annotationLiterals(TypeMirror type) {
+    List<String> literals = new ArrayList<>();
+    for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+      String literal = annotationLiteral(annotationType.getQualifiedName().toString(), mirror);
+      if (literal != null) {
+        literals.add(literal);
+      }
+    }
+    return literals;
+  }
+
+  private String annotationLiteral(String annotationName, AnnotationMirror mirror) {
+    if (!CONSTRAINT_NAMES.contains(annotationName)) {
+      // Given annotation is not from our library, so we don't check it.
+      return null;
+    }
+    String call = "validator.ConstraintLiterals.";
+    String groups = member(mirror, "groups");
+    // Annotations without groups use the calls that existed before groups, shared by old plans.
+    String groupArguments = groups.isEmpty() ? "" : ", " + groups;
+    switch (annotationName) {
+      case "validator.NotNull":
+        return call + "notNull(" + groups + ")";
+      case "validator.Positive":
+        return call + "positive(" + groups + ")";
+      case "validator.Negative":
+        return call + "negative(" + groups + ")";
+      case "validator.NotBlank":
+        return call + "notBlank(" + groups + ")";
+      case "validator.NotEmpty":
+        return call + "notEmpty(" + groups + ")";
+      case "validator.Size":
+        return call + "size(" + member(mirror, "min") + ", " + member(mirror, "max")
+            + groupArguments + ")";
+      case "validator.InRange":
+        return call + "inRange(" + member(mirror, "min") + ", " + member(mirror, "max")
+            + groupArguments + ")";
+      case "validator.AnyOf":
+        return groups.isEmpty()
+            ? call + "anyOf(" + member(mirror, "value") + ")"
+            : call + "anyOf(new String[] {" + member(mirror, "value") + "}" + groupArguments
+                + ")";
+      default:
+        throw new IllegalStateException("Unknown constraint " + annotationName);
+    }
+  }
+
+  /**
+   * @param mirror annotation.
+   * @param name   name of annotation member.
+   * @return source of member value, array values are listed without braces.
+   */
+  private String member(AnnotationMirror mirror, String name) {
+    for (var entry : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror)
+        .entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        Object value = entry.getValue().getValue();
+        if (value instanceof List<?>) {
+          List<String> items = new ArrayList<>();
+          for (Object item : (List<?>) value) {
+            items.add(((AnnotationValue) item).toString());
+          }
+          return String.join(", ", items);
+        }
+        return entry.getValue().toString();
+      }
+    }
+    throw new IllegalStateException("Annotation " + mirror + " has no member " + name);
+  }
+
+  private PackageElement getPackage(Element element) {
+    Element e = element;
+    while (!(e instanceof PackageElement)) {
+      e = e.getEnclosingElement();
+    }
+    return (PackageElement) e;
+  }
+
+  /**
+   * Registers generated plans with java.util.ServiceLoader. An incremental build compiles only
+   * some of the classes, so the plans registered by earlier compilations are kept, unless their
+   * classes were processed again or no longer exist.
+   */
+  private void writeServiceFile() {
+    Set<String> plans = new TreeSet<>(generatedPlans);
+    for (String plan : readServiceFile()) {
+      if (!processedPlans.contains(plan)
+          && processingEnv.getElementUtils().getTypeElement(plan) != null) {
+        plans.add(plan);
+      }
+    }
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT,
+          "", SERVICE_FILE);
+      try (Writer writer = file.openWriter()) {
+        for (String plan : plans) {
+          writer.write(plan);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Kind.ERROR,
+          "Cannot register validation plans: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @return plans registered in the output directory by an earlier compilation, if there was one.
+   */
+  private List<String> readServiceFile() {
+    List<String> plans = new ArrayList<>();
+    try {
+      FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+          SERVICE_FILE);
+      try (BufferedReader reader = new BufferedReader(file.openReader(true))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          // Comments start with '#', as in any provider-configuration file.
+          int commentStart = line.indexOf('#');
+          String plan = (commentStart >= 0 ? line.substring(0, commentStart) : line).trim();
+          if (!plan.isEmpty()) {
+            plans.add(plan);
+          }
+        }
+      }
+    } catch (IOException e) {
+      // Nothing was registered before.
+    }
+    return plans;
+  }
+
+  private void note(Element element, String message) {
+    processingEnv.getMessager().printMessage(Kind.NOTE, message, element);
+  }
+
+  // Binary names of plans generated during this compilation.
+  private final Set<String> generatedPlans = new TreeSet<>();
+  // Binary names of the plans of all classes processed during this compilation, even if skipped.
+  private final Set<String> processedPlans = new TreeSet<>();
+
+  // Qualified names of the annotations of this library that are turned into constraints.
+  private static final Set<String> CONSTRAINT_NAMES = Set.of("validator.NotNull",
+      "validator.Positive", "validator.Negative", "validator.NotBlank", "validator.NotEmpty",
+      "validator.Size", "validator.InRange", "validator.AnyOf");
+  private static final String SERVICE_FILE = "META-INF/services/validator.GeneratedPlan";
+}
@@ -0,0 +1,39 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Rule of a single annotation occurrence, resolved once when the plan of a class is built.
+ */
+interface Constraint {
+
+  /**
+   * Checks if the value follows the rule.
+   *
+   * @param value    value to be checked.
+   * @param typeName name of the type of the value, used if the annotation is misplaced.
+   * @return true if the value follows the rule, false otherwise.
+   * @throws ValidationException if the annotation can't be applied to the value.
+   */
+  boolean isValid(Object value, String typeName);
+
+  /**
+   * Checks if a byte, short, int or long value follows the rule without boxing it.
+   *
+   * @param value    value widened to long.
+   * @param typeName name of the type of the value, used if the annotation is misplaced.
+   * @return true if the value follows the rule, false otherwise.
+   * @throws ValidationException if the annotation can't be applied to the value.
+   */
+  boolean isValid(long value, String typeName);
+
+  /**
+   * @return the error message to be displayed in ValidationError.
+   */
+  String getMessage();
+
+  /**
+   * @return type of the annotation this rule comes from.
+   */
+  Class<? extends Annotation> getAnnotationType();
+}
@@ -0,0 +1,399 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+
+/**
+ * Instances of the annotations of this library, for code that builds validation plans without
+ * reading annotations through reflection.
+ */
+public final class ConstraintLiterals {
+
+  private ConstraintLiterals() {
+  }
+
+  public static NotNull notNull() {
+    return NOT_NULL;
+  }
+
+  public static NotNull notNull(Class<?>... groups) {
+    return new NotNullLiteral(groups.clone());
+  }
+
+  public static Positive positive() {
+    return POSITIVE;
+  }
+
+  public static Positive positive(Class<?>... groups) {
+    return new PositiveLiteral(groups.clone());
+  }
+
+  public static Negative negative() {
+    return NEGATIVE;
+  }
+
+  public static Negative negative(Class<?>... groups) {
+    return new NegativeLiteral(groups.clone());
+  }
+
+  public static NotBlank notBlank() {
+    return NOT_BLANK;
+  }
+
+  public static NotBlank notBlank(Class<?>... groups) {
+    return new NotBlankLiteral(groups.clone());
+  }
+
+  public static NotEmpty notEmpty() {
+    return NOT_EMPTY;
+  }
+
+  public static NotEmpty notEmpty(Class<?>... groups) {
+    return new NotEmptyLiteral(groups.clone());
+  }
+
+  public static Size size(int min, int max) {
+    return new SizeLiteral(min, max, NO_GROUPS);
+  }
+
+  public static Size size(int min, int max, Class<?>... groups) {
+    return new SizeLiteral(min, max, groups.clone());
+  }
+
+  public static InRange inRange(long min, long max) {
+    return new InRangeLiteral(min, max, NO_GROUPS);
+  }
+
+  public static InRange inRange(long min, long max, Class<?>... groups) {
+    return new InRangeLiteral(min, max, groups.clone());
+  }
+
+  public static AnyOf anyOf(String... values) {
+    return new AnyOfLiteral(values.clone(), NO_GROUPS);
+  }
+
+  public static AnyOf anyOf(String[] values, Class<?>... groups) {
+    return new AnyOfLiteral(values.clone(), groups.clone());
+  }
+
+  /**
+   * Computes the hash code of an annotation member as defined by Annotation.hashCode().
+   */
+  private static int memberHash(String name, int valueHash) {
+    return (127 * name.hashCode()) ^ valueHash;
+  }
+
+  /**
+   * The groups member, which every annotation of this library has.
+   */
+  private abstract static class GroupedLiteral {
+
+    GroupedLiteral(Class<?>[] groups) {
+      this.groups = groups;
+    }
+
+    public Class<?>[] groups() {
+      return groups.clone();
+    }
+
+    boolean hasGroups(Class<?>[] other) {
+      return Arrays.equals(other, groups);
+    }
+
+    int groupsHash() {
+      return memberHash("groups", Arrays.hashCode(groups));
+    }
+
+    /**
+     * @param name    qualified name of the annotation.
+     * @param members other members as text, empty if there are none.
+     * @return the annotation as text, groups are listed if there are any.
+     */
+    String toString(String name, String members) {
+      StringBuilder builder = new StringBuilder("@").append(name).append('(').append(members);
+      if (groups.length > 0) {
+        builder.append(members.isEmpty() ? "groups={" : ", groups={");
+        for (int i = 0; i < groups.length; ++i) {
+          builder.append(i == 0 ? "" : ", ").append(groups[i].getName()).append(".class");
+        }
+        builder.append('}');
+      }
+      return builder.append(')').toString();
+    }
+
+    private final Class<?>[] groups;
+  }
+
+  private static final class NotNullLiteral extends GroupedLiteral implements NotNull {
+
+    NotNullLiteral(Class<?>[] groups) {
+      super(groups);
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return NotNull.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof NotNull && hasGroups(((NotNull) o).groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.NotNull", "");
+    }
+  }
+
+  private static final class PositiveLiteral extends GroupedLiteral implements Positive {
+
+    PositiveLiteral(Class<?>[] groups) {
+      super(groups);
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return Positive.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Positive && hasGroups(((Positive) o).groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.Positive", "");
+    }
+  }
+
+  private static final class NegativeLiteral extends GroupedLiteral implements Negative {
+
+    NegativeLiteral(Class<?>[] groups) {
+      super(groups);
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return Negative.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Negative && hasGroups(((Negative) o).groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.Negative", "");
+    }
+  }
+
+  private static final class NotBlankLiteral extends GroupedLiteral implements NotBlank {
+
+    NotBlankLiteral(Class<?>[] groups) {
+      super(groups);
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return NotBlank.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof NotBlank && hasGroups(((NotBlank) o).groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.NotBlank", "");
+    }
+  }
+
+  private static final class NotEmptyLiteral extends GroupedLiteral implements NotEmpty {
+
+    NotEmptyLiteral(Class<?>[] groups) {
+      super(groups);
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return NotEmpty.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof NotEmpty && hasGroups(((NotEmpty) o).groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.NotEmpty", "");
+    }
+  }
+
+  private static final class SizeLiteral extends GroupedLiteral implements Size {
+
+    SizeLiteral(int min, int max, Class<?>[] groups) {
+      super(groups);
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public int min() {
+      return min;
+    }
+
+    @Override
+    public int max() {
+      return max;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return Size.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Size)) {
+        return false;
+      }
+      Size other = (Size) o;
+      return other.min() == min && other.max() == max && hasGroups(other.groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return memberHash("min", Integer.hashCode(min)) + memberHash("max", Integer.hashCode(max))
+          + groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.Size", "min=" + min + ", max=" + max);
+    }
+
+    private final int min;
+    private final int max;
+  }
+
+  private static final class InRangeLiteral extends GroupedLiteral implements InRange {
+
+    InRangeLiteral(long min, long max, Class<?>[] groups) {
+      super(groups);
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public long min() {
+      return min;
+    }
+
+    @Override
+    public long max() {
+      return max;
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return InRange.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof InRange)) {
+        return false;
+      }
+      InRange other = (InRange) o;
+      return other.min() == min && other.max() == max && hasGroups(other.groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return memberHash("min", Long.hashCode(min)) + memberHash("max", Long.hashCode(max))
+          + groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.InRange", "min=" + min + "L, max=" + max + "L");
+    }
+
+    private final long min;
+    private final long max;
+  }
+
+  private static final class AnyOfLiteral extends GroupedLiteral implements AnyOf {
+
+    AnyOfLiteral(String[] values, Class<?>[] groups) {
+      super(groups);
+      this.values = values;
+    }
+
+    @Override
+    public String[] value() {
+      // Annotation members return a copy of arrays, so the literal stays immutable.
+      return values.clone();
+    }
+
+    @Override
+    public Class<? extends Annotation> annotationType() {
+      return AnyOf.class;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof AnyOf && Arrays.equals(((AnyOf) o).value(), values)
+          && hasGroups(((AnyOf) o).groups());
+    }
+
+    @Override
+    public int hashCode() {
+      return memberHash("value", Arrays.hashCode(values)) + groupsHash();
+    }
+
+    @Override
+    public String toString() {
+      return toString("validator.AnyOf", Arrays.toString(values));
+    }
+
+    private final String[] values;
+  }
+
+  private static final Class<?>[] NO_GROUPS = new Class<?>[0];
+  private static final NotNull NOT_NULL = new NotNullLiteral(NO_GROUPS);
+  private static final Positive POSITIVE = new PositiveLiteral(NO_GROUPS);
+  private static final Negative NEGATIVE = new NegativeLiteral(NO_GROUPS);
+  private static final NotBlank NOT_BLANK = new NotBlankLiteral(NO_GROUPS);
+  private static final NotEmpty NOT_EMPTY = new NotEmptyLiteral(NO_GROUPS);
+}
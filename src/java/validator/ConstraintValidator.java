@@ -0,0 +1,44 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Checks the values annotated with a constraint annotation defined outside of this library. The
+ * validator of an annotation is found once, when the plan of the first class using it is built, so
+ * it costs the same as the annotations of this library during validation. Validators are either
+ * registered with ConstraintValidators.register() or found with java.util.ServiceLoader in the
+ * class loader of the annotation. They must be thread-safe.
+ * example: a validator of @Email with value type String.
+ *
+ * @param <A> the annotation, marked with @CustomConstraint.
+ * @param <T> type of the values the annotation applies to.
+ */
+public interface ConstraintValidator<A extends Annotation, T> {
+
+  /**
+   * @return the annotation checked by this validator.
+   */
+  Class<A> annotationType();
+
+  /**
+   * @return type of the values the annotation applies to. Values of other types are reported as a
+   *     misplaced annotation with a ValidationException.
+   */
+  Class<T> valueType();
+
+  /**
+   * Checks if a value follows the rule of an annotation. Nulls are not passed to validators, they
+   * are left to @NotNull.
+   *
+   * @param annotation annotation applied to the value, with its members.
+   * @param value      value to be checked, not null.
+   * @return true if the value follows the rule, false otherwise.
+   */
+  boolean isValid(A annotation, T value);
+
+  /**
+   * @param annotation annotation applied to a value that failed the check.
+   * @return the error message to be displayed in ValidationError.
+   */
+  String getMessage(A annotation);
+}
@@ -0,0 +1,86 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of validators of custom constraint annotations. Validators registered here take
+ * precedence over the ones found with java.util.ServiceLoader.
+ */
+public final class ConstraintValidators {
+
+  private ConstraintValidators() {
+  }
+
+  /**
+   * Registers the validator of a custom constraint annotation. Plans of classes are built once, so
+   * the validator must be registered before the first validation of a class that uses the
+   * annotation.
+   *
+   * @param validator validator of an annotation marked with @CustomConstraint.
+   * @throws ValidationException if the annotation is not marked with @CustomConstraint, or another
+   *     validator is registered for it.
+   */
+  public static void register(ConstraintValidator<?, ?> validator) {
+    if (validator == null || validator.annotationType() == null
+        || validator.valueType() == null) {
+      throw new ValidationException(NULL_VALIDATOR_MSG);
+    }
+    Class<? extends Annotation> annotationType = validator.annotationType();
+    if (!annotationType.isAnnotationPresent(CustomConstraint.class)) {
+      throw new ValidationException(NOT_CUSTOM_MSG + annotationType.getName());
+    }
+    ConstraintValidator<?, ?> previous = REGISTERED.putIfAbsent(annotationType, validator);
+    if (previous != null && previous != validator) {
+      throw new ValidationException(DUPLICATE_VALIDATOR_MSG + annotationType.getName());
+    }
+  }
+
+  /**
+   * @param annotationType an annotation marked with @CustomConstraint.
+   * @return validator of the annotation, or null if there is none.
+   */
+  static ConstraintValidator<?, ?> find(Class<? extends Annotation> annotationType) {
+    ConstraintValidator<?, ?> validator = REGISTERED.get(annotationType);
+    return validator != null ? validator : DISCOVERED.get(annotationType).orElse(null);
+  }
+
+  /**
+   * @param annotationType an annotation marked with @CustomConstraint.
+   * @return the first validator of the annotation provided through ServiceLoader.
+   */
+  @SuppressWarnings("rawtypes")
+  private static Optional<ConstraintValidator<?, ?>> discover(Class<?> annotationType) {
+    ClassLoader loader = annotationType.getClassLoader();
+    ServiceLoader<ConstraintValidator> validators = loader == null
+        ? ServiceLoader.loadInstalled(ConstraintValidator.class)
+        : ServiceLoader.load(ConstraintValidator.class, loader);
+    for (ConstraintValidator<?, ?> validator : validators) {
+      if (validator.annotationType() == annotationType && validator.valueType() != null) {
+        return Optional.of(validator);
+      }
+    }
+    return Optional.empty();
+  }
+
+  // Validators registered explicitly, by their annotations.
+  private static final ConcurrentMap<Class<? extends Annotation>, ConstraintValidator<?, ?>>
+      REGISTERED = new ConcurrentHashMap<>();
+  // Validators found with ServiceLoader, looked up once per annotation.
+  private static final ClassValue<Optional<ConstraintValidator<?, ?>>> DISCOVERED =
+      new ClassValue<>() {
+        @Override
+        protected Optional<ConstraintValidator<?, ?>> computeValue(Class<?> annotationType) {
+          return discover(annotationType);
+        }
+      };
+
+  static final String NULL_VALIDATOR_MSG =
+      "ERROR: constraint validator and its types must not be null.";
+  static final String NOT_CUSTOM_MSG = "ERROR: annotation is not marked with @CustomConstraint: ";
+  static final String DUPLICATE_VALIDATOR_MSG =
+      "ERROR: another constraint validator is already registered for ";
+}
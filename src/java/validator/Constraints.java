@@ -0,0 +1,610 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves annotations of this library into constraints.
+ */
+final class Constraints {
+
+  private Constraints() {
+  }
+
+  /**
+   * Resolves the constraints of given annotations that belong to selected groups.
+   *
+   * @param annotations annotations applied to a type.
+   * @param groups      groups of constraints selected for validation.
+   * @return constraints of the selected annotations from this library, in the same order.
+   */
+  static Constraint[] resolve(Annotation[] annotations, Groups groups) {
+    List<Constraint> constraints = new ArrayList<>(annotations.length);
+    for (Annotation annotation : annotations) {
+      Class<?>[] constraintGroups = groupsOf(annotation);
+      // Given annotation is not from our library, so we don't check it.
+      // Constraints of other groups are left out of the plan before they are resolved, so they
+      // cost nothing, and custom ones don't need a validator.
+      if (constraintGroups != null && groups.selects(constraintGroups)) {
+        constraints.add(resolve(annotation));
+      }
+    }
+    return constraints.toArray(new Constraint[0]);
+  }
+
+  private static Constraint resolve(Annotation annotation) {
+    if (annotation instanceof NotNull) {
+      return NOT_NULL;
+    }
+    if (annotation instanceof Positive) {
+      return POSITIVE;
+    }
+    if (annotation instanceof Negative) {
+      return NEGATIVE;
+    }
+    if (annotation instanceof NotBlank) {
+      return NOT_BLANK;
+    }
+    if (annotation instanceof NotEmpty) {
+      return NOT_EMPTY;
+    }
+    if (annotation instanceof Size) {
+      Size size = (Size) annotation;
+      return new SizeConstraint(size.min(), size.max());
+    }
+    if (annotation instanceof InRange) {
+      InRange range = (InRange) annotation;
+      return new InRangeConstraint(range.min(), range.max());
+    }
+    if (annotation instanceof AnyOf) {
+      return new AnyOfConstraint(((AnyOf) annotation).value());
+    }
+    if (annotation.annotationType().isAnnotationPresent(CustomConstraint.class)) {
+      return resolveCustom(annotation);
+    }
+    return null;
+  }
+
+  /**
+   * Resolves an annotation checked by a ConstraintValidator.
+   *
+   * @param annotation annotation marked with @CustomConstraint.
+   * @return constraint calling the validator of the annotation.
+   * @throws ValidationException if the annotation has no validator.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Constraint resolveCustom(Annotation annotation) {
+    ConstraintValidator<?, ?> validator = ConstraintValidators.find(annotation.annotationType());
+    if (validator == null) {
+      throw new ValidationException(NO_VALIDATOR_MSG + annotation.annotationType().getName());
+    }
+    return new CustomConstraintRule(annotation, (ConstraintValidator) validator);
+  }
+
+  /**
+   * @param annotation an annotation applied to a type.
+   * @return groups of the annotation, none for Default. Null if it's neither an annotation of this
+   *     library nor a custom constraint.
+   */
+  private static Class<?>[] groupsOf(Annotation annotation) {
+    if (annotation instanceof NotNull) {
+      return ((NotNull) annotation).groups();
+    }
+    if (annotation instanceof Positive) {
+      return ((Positive) annotation).groups();
+    }
+    if (annotation instanceof Negative) {
+      return ((Negative) annotation).groups();
+    }
+    if (annotation instanceof NotBlank) {
+      return ((NotBlank) annotation).groups();
+    }
+    if (annotation instanceof NotEmpty) {
+      return ((NotEmpty) annotation).groups();
+    }
+    if (annotation instanceof Size) {
+      return ((Size) annotation).groups();
+    }
+    if (annotation instanceof InRange) {
+      return ((InRange) annotation).groups();
+    }
+    if (annotation instanceof AnyOf) {
+      return ((AnyOf) annotation).groups();
+    }
+    if (annotation.annotationType().isAnnotationPresent(CustomConstraint.class)) {
+      return customGroups(annotation);
+    }
+    return null;
+  }
+
+  /**
+   * @param annotation custom constraint annotation.
+   * @return value of its groups() member, none if it doesn't have one.
+   */
+  private static Class<?>[] customGroups(Annotation annotation) {
+    try {
+      Method groups = annotation.annotationType().getMethod("groups");
+      if (groups.getReturnType() == Class[].class) {
+        return (Class<?>[]) groups.invoke(annotation);
+      }
+    } catch (NoSuchMethodException e) {
+      // Annotations without groups belong to Default.
+    } catch (ReflectiveOperationException e) {
+      throw new ValidationException(NO_GROUPS_MSG + annotation.annotationType().getName());
+    }
+    return NO_GROUPS;
+  }
+
+  private static boolean isWholeNumber(Object value) {
+    return value instanceof Byte
+        || value instanceof Short
+        || value instanceof Integer
+        || value instanceof Long;
+  }
+
+  private static ValidationException misplaced(String misplacement, String expected,
+      String typeName) {
+    return new ValidationException(misplacement + " " + expected + typeName);
+  }
+
+  private static ValidationException wrongBorders(String borderError, long min, long max) {
+    return new ValidationException(borderError + " Min = " + min + ", Max = " + max + ".");
+  }
+
+  /**
+   * Constraint whose message depends on the annotation, so it's only built once a value fails the
+   * check, and kept for later failures. The message is kept in a plain field: Strings are
+   * immutable, so threads that race to build it get equal messages, and whichever is kept is fine.
+   */
+  private abstract static class LazyMessageConstraint implements Constraint {
+
+    @Override
+    public final String getMessage() {
+      String result = message;
+      if (result == null) {
+        result = buildMessage();
+        message = result;
+      }
+      return result;
+    }
+
+    /**
+     * @return message of a violation.
+     */
+    abstract String buildMessage();
+
+    // Message of a violation, null until the first one.
+    private String message;
+  }
+
+  private static final class NotNullConstraint implements Constraint {
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      return value != null;
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      // Primitives are never null
+      return true;
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return NotNull.class;
+    }
+
+    @Override
+    public String getMessage() {
+      return NOT_NULL_MESSAGE;
+    }
+  }
+
+  private static final class PositiveConstraint implements Constraint {
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @Positive doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      if (isWholeNumber(value)) {
+        return ((Number) value).longValue() > 0;
+      }
+      // If the value is not a whole number, throw an exception.
+      throw misplaced(POSITIVE_MISPLACEMENT, EXPECTED_INTEGER, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      return value > 0;
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return Positive.class;
+    }
+
+    @Override
+    public String getMessage() {
+      return POSITIVE_MESSAGE;
+    }
+  }
+
+  private static final class NegativeConstraint implements Constraint {
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @Negative doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      if (isWholeNumber(value)) {
+        return ((Number) value).longValue() < 0;
+      }
+      // If it's not a whole number, throw an exception.
+      throw misplaced(NEGATIVE_MISPLACEMENT, EXPECTED_INTEGER, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      return value < 0;
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return Negative.class;
+    }
+
+    @Override
+    public String getMessage() {
+      return NEGATIVE_MESSAGE;
+    }
+  }
+
+  private static final class NotBlankConstraint implements Constraint {
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @NotBlank doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      if (value instanceof String) {
+        return !((String) value).isBlank();
+      }
+      // If value isn't a String
+      throw misplaced(NOT_BLANK_MISPLACEMENT, EXPECTED_STRING, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      throw misplaced(NOT_BLANK_MISPLACEMENT, EXPECTED_STRING, typeName);
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return NotBlank.class;
+    }
+
+    @Override
+    public String getMessage() {
+      return NOT_BLANK_MESSAGE;
+    }
+  }
+
+  private static final class NotEmptyConstraint implements Constraint {
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @NotEmpty doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      if (value instanceof List<?>
+          || value instanceof Set<?>) {
+        return !((Collection<?>) value).isEmpty();
+      }
+      if (value instanceof Map<?, ?>) {
+        return !((Map<?, ?>) value).isEmpty();
+      }
+      if (value instanceof String) {
+        return !((String) value).isEmpty();
+      }
+      // If it's not any of these types...
+      throw misplaced(NOT_EMPTY_MISPLACEMENT, EXPECTED_COLLECTION, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      throw misplaced(NOT_EMPTY_MISPLACEMENT, EXPECTED_COLLECTION, typeName);
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return NotEmpty.class;
+    }
+
+    @Override
+    public String getMessage() {
+      return NOT_EMPTY_MESSAGE;
+    }
+  }
+
+  private static final class SizeConstraint extends LazyMessageConstraint {
+
+    SizeConstraint(int min, int max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @Size doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      // Check if borders are set incorrectly. If so, throw an exception.
+      if (min > max) {
+        throw wrongBorders(SIZE_BORDER_ERROR, min, max);
+      }
+      // Size must be between min and max annotation parameters.
+      if (value instanceof List<?>
+          || value instanceof Set<?>) {
+        return isSizeValid(((Collection<?>) value).size());
+      }
+      if (value instanceof Map<?, ?>) {
+        return isSizeValid(((Map<?, ?>) value).size());
+      }
+      if (value instanceof String) {
+        return isSizeValid(((String) value).length());
+      }
+      // If it's not any of these types, throw an exception.
+      throw misplaced(SIZE_MISPLACEMENT, EXPECTED_COLLECTION, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      if (min > max) {
+        throw wrongBorders(SIZE_BORDER_ERROR, min, max);
+      }
+      throw misplaced(SIZE_MISPLACEMENT, EXPECTED_COLLECTION, typeName);
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return Size.class;
+    }
+
+    @Override
+    String buildMessage() {
+      return SIZE_MESSAGE + min + " and " + max;
+    }
+
+    private boolean isSizeValid(int size) {
+      return size >= min && size <= max;
+    }
+
+    private final int min;
+    private final int max;
+  }
+
+  private static final class InRangeConstraint extends LazyMessageConstraint {
+
+    InRangeConstraint(long min, long max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @InRange doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      if (isWholeNumber(value)) {
+        return isValid(((Number) value).longValue(), typeName);
+      }
+      if (min > max) {
+        throw wrongBorders(IN_RANGE_BORDER_ERROR, min, max);
+      }
+      // If value isn't a whole number, throw an exception.
+      throw misplaced(IN_RANGE_MISPLACEMENT, EXPECTED_INTEGER, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      // Check if borders are set incorrectly. If so, throw an exception.
+      if (min > max) {
+        throw wrongBorders(IN_RANGE_BORDER_ERROR, min, max);
+      }
+      // Range of value must be between min and max annotation parameters.
+      return value >= min && value <= max;
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return InRange.class;
+    }
+
+    @Override
+    String buildMessage() {
+      return IN_RANGE_MESSAGE + min + " and " + max;
+    }
+
+    private final long min;
+    private final long max;
+  }
+
+  private static final class AnyOfConstraint extends LazyMessageConstraint {
+
+    AnyOfConstraint(String[] values) {
+      this.values = values;
+      // Short lists are scanned faster than they are hashed.
+      this.options = values.length > LINEAR_SEARCH_LIMIT
+          ? new HashSet<>(Arrays.asList(values))
+          : null;
+    }
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // @AnyOf doesn't handle nulls
+      if (value == null) {
+        return true;
+      }
+      // Value must be included in array in annotation parameter.
+      if (value instanceof String) {
+        return options != null ? options.contains(value) : contains((String) value);
+      }
+      // If given field wasn't a String, throw an exception.
+      throw misplaced(ANY_OF_MISPLACEMENT, EXPECTED_STRING, typeName);
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      throw misplaced(ANY_OF_MISPLACEMENT, EXPECTED_STRING, typeName);
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return AnyOf.class;
+    }
+
+    @Override
+    String buildMessage() {
+      StringBuilder sb = new StringBuilder(ANY_OF_MESSAGE);
+      for (int i = 0; i < values.length; ++i) {
+        sb.append(i == 0 ? " '" : ", '").append(values[i]).append('\'');
+      }
+      return sb.toString();
+    }
+
+    private boolean contains(String text) {
+      for (String option : values) {
+        if (option.equals(text)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private final String[] values;
+    // Hash set of values, only used when there are too many values to scan.
+    private final Set<String> options;
+  }
+
+  /**
+   * Rule of an annotation defined outside of this library, checked by its ConstraintValidator.
+   *
+   * @param <A> the annotation.
+   * @param <T> type of the values the annotation applies to.
+   */
+  private static final class CustomConstraintRule<A extends Annotation, T>
+      extends LazyMessageConstraint {
+
+    CustomConstraintRule(A annotation, ConstraintValidator<A, T> validator) {
+      this.annotation = annotation;
+      this.validator = validator;
+      this.valueType = validator.valueType();
+    }
+
+    @Override
+    public boolean isValid(Object value, String typeName) {
+      // Nulls are left to @NotNull, like the other annotations do.
+      if (value == null) {
+        return true;
+      }
+      if (!valueType.isInstance(value)) {
+        throw misplaced("ERROR: Incorrect use of @" + annotation.annotationType().getSimpleName()
+            + ". Use with " + valueType.getSimpleName() + " only.", EXPECTED
+            + valueType.getSimpleName() + ", actual: ", typeName);
+      }
+      return validator.isValid(annotation, valueType.cast(value));
+    }
+
+    @Override
+    public boolean isValid(long value, String typeName) {
+      // Validators take objects, so the value is boxed to the wrapper of its own type.
+      switch (typeName) {
+        case "byte":
+          return isValid((Object) (byte) value, typeName);
+        case "short":
+          return isValid((Object) (short) value, typeName);
+        case "int":
+          return isValid((Object) (int) value, typeName);
+        default:
+          return isValid((Object) value, typeName);
+      }
+    }
+
+    @Override
+    public Class<? extends Annotation> getAnnotationType() {
+      return annotation.annotationType();
+    }
+
+    @Override
+    String buildMessage() {
+      return validator.getMessage(annotation);
+    }
+
+    private final A annotation;
+    private final ConstraintValidator<A, T> validator;
+    // Type of the values the annotation applies to.
+    private final Class<T> valueType;
+  }
+
+  // Maximum number of @AnyOf values that are searched without a hash set.
+  private static final int LINEAR_SEARCH_LIMIT = 8;
+
+  private static final Constraint NOT_NULL = new NotNullConstraint();
+  private static final Constraint POSITIVE = new PositiveConstraint();
+  private static final Constraint NEGATIVE = new NegativeConstraint();
+  private static final Constraint NOT_BLANK = new NotBlankConstraint();
+  private static final Constraint NOT_EMPTY = new NotEmptyConstraint();
+
+  private static final String POSITIVE_MISPLACEMENT =
+      "ERROR: Incorrect use of @Positive. Use with whole numbers only.";
+  private static final String NEGATIVE_MISPLACEMENT =
+      "ERROR: Incorrect use of @Negative. Use with whole numbers only.";
+  private static final String NOT_BLANK_MISPLACEMENT =
+      "ERROR: Incorrect use of @NotBlank. Use with String only.";
+  private static final String NOT_EMPTY_MISPLACEMENT =
+      "ERROR: Incorrect use of @NotEmpty. Use with List<T>, Set<T>, Map<K, V> and String only.";
+  private static final String SIZE_MISPLACEMENT =
+      "ERROR: Incorrect use of @Size. Use with List<T>, Set<T>, Map<K, V> and String only.";
+  private static final String SIZE_BORDER_ERROR =
+      "ERROR: Incorrect use of @Size. min parameter must be <= max parameter.";
+  private static final String IN_RANGE_MISPLACEMENT =
+      "ERROR: Incorrect use of @InRange. Use with whole numbers only.";
+  private static final String IN_RANGE_BORDER_ERROR =
+      "ERROR: Incorrect use of @InRange. min parameter must be <= max parameter.";
+  private static final String ANY_OF_MISPLACEMENT =
+      "ERROR: Incorrect use of @AnyOf. Use with String only.";
+
+  private static final Class<?>[] NO_GROUPS = new Class<?>[0];
+
+  private static final String EXPECTED = "Expected ";
+  private static final String EXPECTED_STRING = "Expected String, actual: ";
+  private static final String EXPECTED_COLLECTION = "Expected List/Set/Map/String, actual: ";
+  private static final String EXPECTED_INTEGER = "Expected Byte/Short/Int/Long, actual: ";
+
+  private static final String NOT_NULL_MESSAGE = "Must not be null";
+  private static final String POSITIVE_MESSAGE = "Must be positive (more than 0)";
+  private static final String NEGATIVE_MESSAGE = "Must be negative (less than 0)";
+  private static final String NOT_BLANK_MESSAGE = "Must not be blank";
+  private static final String NOT_EMPTY_MESSAGE = "Must not be empty";
+  private static final String SIZE_MESSAGE = "Size must be in range between ";
+  private static final String IN_RANGE_MESSAGE = "Value must be in range between ";
+  private static final String ANY_OF_MESSAGE = "Must be one of";
+
+  static final String NO_VALIDATOR_MSG = "ERROR: no ConstraintValidator found for @";
+  static final String NO_GROUPS_MSG = "ERROR: cannot read groups of @";
+}
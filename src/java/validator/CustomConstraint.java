@@ -0,0 +1,17 @@
+package validator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an annotation as a constraint checked by a ConstraintValidator. The annotation needs
+ * runtime retention and should target TYPE_USE, like the annotations of this library. A member
+ * Class<?>[] groups() puts its constraints into validation groups.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE})
+public @interface CustomConstraint {
+
+}
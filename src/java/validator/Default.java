@@ -0,0 +1,9 @@
+package validator;
+
+/**
+ * Group of the constraints that don't name any group. Validation without groups checks this group.
+ * A group that extends Default selects these constraints as well.
+ */
+public interface Default {
+
+}
@@ -0,0 +1,183 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedArrayType;
+import java.lang.reflect.AnnotatedParameterizedType;
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Annotations applied to a type and to the types of its elements, resolved once per declaration.
+ * It describes how the contents of a container are checked: the elements of a List, a Set, an
+ * Optional or an array, and the keys and values of a Map.
+ * example: Map<@NotBlank String, List<@NotNull GuestForm>> has a plan for the keys, a plan for
+ * the values and a plan for the elements of the lists inside the values.
+ */
+final class ElementPlan {
+
+  private ElementPlan(Annotation[] annotations, Groups groups, ElementPlan[] arguments,
+      Class<?> type, boolean container) {
+    this.constraints = Constraints.resolve(annotations, groups);
+    this.arguments = arguments;
+    this.type = type;
+    this.typeName = type.toString();
+    this.container = container;
+  }
+
+  /**
+   * Resolves the plan of given type and of its type arguments or array component.
+   *
+   * @param type   annotated type of a field or of an element.
+   * @param groups groups of constraints selected for validation.
+   * @return plan of the type.
+   */
+  static ElementPlan of(AnnotatedType type, Groups groups) {
+    ElementPlan[] arguments = NO_ARGUMENTS;
+    if (type instanceof AnnotatedParameterizedType) {
+      AnnotatedType[] types = ((AnnotatedParameterizedType) type)
+          .getAnnotatedActualTypeArguments();
+      arguments = new ElementPlan[types.length];
+      for (int i = 0; i < types.length; ++i) {
+        arguments[i] = of(types[i], groups);
+      }
+    } else if (type instanceof AnnotatedArrayType) {
+      arguments = new ElementPlan[]{
+          of(((AnnotatedArrayType) type).getAnnotatedGenericComponentType(), groups)};
+    }
+    return new ElementPlan(type.getAnnotations(), groups, arguments, rawType(type.getType()),
+        mayBeContainer(type.getType()));
+  }
+
+  /**
+   * Builds the plan from annotations given for each level of nesting.
+   *
+   * @param type   declared type of the field.
+   * @param levels annotations of the field, then of its elements, then of inner list elements and
+   *               so on.
+   * @param level  level of the plan to be built.
+   * @param groups groups of constraints selected for validation.
+   * @return plan of the type at given level.
+   */
+  static ElementPlan ofLevels(Class<?> type, Annotation[][] levels, int level, Groups groups) {
+    ElementPlan[] arguments = level + 1 < levels.length
+        ? new ElementPlan[]{ofLevels(null, levels, level + 1, groups)}
+        : NO_ARGUMENTS;
+    // Declared types of the elements are not known.
+    return type == null
+        ? new ElementPlan(levels[level], groups, arguments, Object.class, true)
+        : new ElementPlan(levels[level], groups, arguments, type, mayBeContainer(type));
+  }
+
+  /**
+   * @return constraints of the annotations applied to this type.
+   */
+  Constraint[] getConstraints() {
+    return constraints;
+  }
+
+  /**
+   * @return declared type without type arguments, Object if it's not known.
+   */
+  Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * @return String that represents the declared type.
+   */
+  String getTypeName() {
+    return typeName;
+  }
+
+  /**
+   * @return false if the declared type can never hold a container, so the value doesn't need to be
+   *     inspected for elements.
+   */
+  boolean isContainer() {
+    return container;
+  }
+
+  /**
+   * @return plan of the elements of a List, a Set, an Optional or an array, or of the keys of a
+   *     Map.
+   */
+  ElementPlan getElements() {
+    return arguments.length > 0 ? arguments[0] : UNANNOTATED;
+  }
+
+  /**
+   * @return plan of the values of a Map.
+   */
+  ElementPlan getValues() {
+    return arguments.length > 1 ? arguments[1] : UNANNOTATED;
+  }
+
+  /**
+   * @param type declared type.
+   * @return true if a value of given type may be a container.
+   */
+  private static boolean mayBeContainer(Type type) {
+    if (type instanceof ParameterizedType) {
+      type = ((ParameterizedType) type).getRawType();
+    }
+    if (!(type instanceof Class<?>)) {
+      // Type variables and the like may stand for anything.
+      return true;
+    }
+    Class<?> cls = (Class<?>) type;
+    if (cls.isArray() || cls == Optional.class
+        || Collection.class.isAssignableFrom(cls) || Map.class.isAssignableFrom(cls)) {
+      return true;
+    }
+    // Other final classes, like String or Integer, are never containers.
+    return !cls.isPrimitive() && !Modifier.isFinal(cls.getModifiers());
+  }
+
+  /**
+   * @param type declared type.
+   * @return class of the type without type arguments. Type variables and wildcards are replaced by
+   *     their first upper bound.
+   */
+  private static Class<?> rawType(Type type) {
+    if (type instanceof Class<?>) {
+      return (Class<?>) type;
+    }
+    if (type instanceof ParameterizedType) {
+      return rawType(((ParameterizedType) type).getRawType());
+    }
+    if (type instanceof GenericArrayType) {
+      Class<?> component = rawType(((GenericArrayType) type).getGenericComponentType());
+      return Array.newInstance(component, 0).getClass();
+    }
+    if (type instanceof TypeVariable<?>) {
+      return rawType(((TypeVariable<?>) type).getBounds()[0]);
+    }
+    if (type instanceof WildcardType) {
+      return rawType(((WildcardType) type).getUpperBounds()[0]);
+    }
+    return Object.class;
+  }
+
+  private final Constraint[] constraints;
+  // Plans of type arguments, or of the component of an array.
+  private final ElementPlan[] arguments;
+  // Declared type, Object if it's not known.
+  private final Class<?> type;
+  // String that represents the declared type.
+  private final String typeName;
+  // Whether the value may be a container, decided by its declared type.
+  private final boolean container;
+
+  private static final ElementPlan[] NO_ARGUMENTS = new ElementPlan[0];
+  private static final ElementPlan UNANNOTATED = new ElementPlan(new Annotation[0],
+      Groups.DEFAULT, NO_ARGUMENTS, Object.class, true);
+}
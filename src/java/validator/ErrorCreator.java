@@ -1,7 +1,5 @@
 package validator;
 
-import java.util.List;
-
 class ErrorCreator {
 
   /**
@@ -11,15 +9,8 @@ class ErrorCreator {
    * @param path path to failed value.
    * @return constructed validation error.
    */
-  static ValidationError createError(Object failedValue,
-      String errorMessage, List<String> path) {
-    StringBuilder pathBuilder = new StringBuilder();
-    // Build path to failed value by concatenating all Strings of list
-    for (String pathNode : path) {
-      pathBuilder.append(pathNode);
-    }
-    String pathToField = pathBuilder.toString();
-    return new MyValidationError(errorMessage, pathToField, failedValue);
+  static ValidationError createError(Object failedValue, String errorMessage, PropertyPath path) {
+    return new MyValidationError(errorMessage, path, failedValue);
   }
 
 
@@ -0,0 +1,33 @@
+package validator;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads the value of a field.
+ */
+interface FieldAccessor {
+
+  /**
+   * @param owner object where the field resides.
+   * @return value of the field, boxed if it's a primitive.
+   */
+  Object get(Object owner);
+
+  /**
+   * Reads the value of a byte, short, int or long field without boxing it.
+   *
+   * @param owner object where the field resides.
+   * @return value of the field widened to long.
+   */
+  long getLong(Object owner);
+
+  /**
+   * Creates an accessor of the field.
+   *
+   * @param field field to be read, already made accessible.
+   * @return accessor of the field.
+   */
+  static FieldAccessor of(Field field) {
+    return new ReflectiveAccessor(field);
+  }
+}
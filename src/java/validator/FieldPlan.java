@@ -0,0 +1,119 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.Field;
+
+/**
+ * Everything needed to check a single field, resolved once per class.
+ */
+final class FieldPlan {
+
+  /**
+   * @param field  the field, read with reflection.
+   * @param groups groups of constraints selected for validation.
+   */
+  FieldPlan(Field field, Groups groups) {
+    // Make field accessible once, instead of on every validation.
+    field.setAccessible(true);
+    this.accessor = FieldAccessor.of(field);
+    this.wholeNumber = isWholeNumber(field.getType());
+    this.name = field.getName();
+    this.type = field.getType();
+    this.typeName = field.getType().toString();
+    AnnotatedType annotatedType = field.getAnnotatedType();
+    this.constraints = Constraints.resolve(annotatedType.getAnnotations(), groups);
+    this.elements = ElementPlan.of(annotatedType, groups);
+  }
+
+  /**
+   * @param field  description of the field generated at compile time.
+   * @param groups groups of constraints selected for validation.
+   */
+  FieldPlan(GeneratedField<?> field, Groups groups) {
+    this.accessor = field.getAccessor();
+    this.wholeNumber = isWholeNumber(field.getType());
+    this.name = field.getName();
+    this.type = field.getType();
+    this.typeName = field.getType().toString();
+    this.constraints = Constraints.resolve(field.getAnnotations(), groups);
+    Annotation[][] levels = new Annotation[field.getElementAnnotations().length + 1][];
+    levels[0] = field.getAnnotations();
+    System.arraycopy(field.getElementAnnotations(), 0, levels, 1, levels.length - 1);
+    this.elements = ElementPlan.ofLevels(field.getType(), levels, 0, groups);
+  }
+
+  /**
+   * Reads the value of this field.
+   *
+   * @param owner object where the field resides.
+   * @return value of the field.
+   */
+  Object getValue(Object owner) {
+    return accessor.get(owner);
+  }
+
+  /**
+   * Reads the value of this field without boxing it. Only for fields that are whole numbers.
+   *
+   * @param owner object where the field resides.
+   * @return value of the field.
+   */
+  long getLongValue(Object owner) {
+    return accessor.getLong(owner);
+  }
+
+  /**
+   * @return true if the field is of type byte, short, int or long.
+   */
+  boolean isWholeNumber() {
+    return wholeNumber;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * @return declared type of this field.
+   */
+  Class<?> getType() {
+    return type;
+  }
+
+  String getTypeName() {
+    return typeName;
+  }
+
+  /**
+   * @return constraints of the annotations applied to the field type.
+   */
+  Constraint[] getConstraints() {
+    return constraints;
+  }
+
+  /**
+   * @return plan of the field type, used if the field holds a container.
+   */
+  ElementPlan getElements() {
+    return elements;
+  }
+
+  /**
+   * @param type type of a field.
+   * @return true if the type is byte, short, int or long.
+   */
+  static boolean isWholeNumber(Class<?> type) {
+    return type == byte.class || type == short.class || type == int.class || type == long.class;
+  }
+
+  private final FieldAccessor accessor;
+  // Whether the field is a primitive that can be read with getLongValue().
+  private final boolean wholeNumber;
+  private final String name;
+  private final Class<?> type;
+  // String that represents the declared type of this field.
+  private final String typeName;
+  private final Constraint[] constraints;
+  private final ElementPlan elements;
+}
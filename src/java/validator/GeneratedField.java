@@ -0,0 +1,121 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A field of a class described by a GeneratedPlan.
+ *
+ * @param <T> the class where the field resides.
+ */
+public final class GeneratedField<T> {
+
+  private GeneratedField(String name, Class<?> type, FieldAccessor accessor,
+      Annotation[] annotations, Annotation[][] elementAnnotations) {
+    this.name = name;
+    this.type = type;
+    this.accessor = accessor;
+    this.annotations = annotations;
+    this.elementAnnotations = elementAnnotations;
+  }
+
+  /**
+   * Describes a field of a reference type.
+   *
+   * @param name               name of the field.
+   * @param type               declared type of the field.
+   * @param getter             reads the field.
+   * @param annotations        annotations applied to the field type.
+   * @param elementAnnotations annotations applied to the elements of a list field, one array per
+   *                           level of nesting: List<@A List<@B String>> has {{@A}, {@B}}.
+   * @param <T>                the class where the field resides.
+   * @return field description.
+   */
+  public static <T> GeneratedField<T> of(String name, Class<?> type,
+      Function<? super T, ?> getter, Annotation[] annotations,
+      Annotation[]... elementAnnotations) {
+    @SuppressWarnings("unchecked")
+    Function<Object, ?> ownerGetter = (Function<Object, ?>) getter;
+    FieldAccessor accessor = new FieldAccessor() {
+      @Override
+      public Object get(Object owner) {
+        return ownerGetter.apply(owner);
+      }
+
+      @Override
+      public long getLong(Object owner) {
+        return ((Number) ownerGetter.apply(owner)).longValue();
+      }
+    };
+    return new GeneratedField<>(name, type, accessor, annotations, elementAnnotations);
+  }
+
+  /**
+   * Describes a field of type byte, short, int or long.
+   *
+   * @param name        name of the field.
+   * @param type        declared type of the field.
+   * @param getter      reads the field without boxing it.
+   * @param annotations annotations applied to the field type.
+   * @param <T>         the class where the field resides.
+   * @return field description.
+   */
+  public static <T> GeneratedField<T> ofWholeNumber(String name, Class<?> type,
+      ToLongFunction<? super T> getter, Annotation... annotations) {
+    if (!FieldPlan.isWholeNumber(type)) {
+      throw new IllegalArgumentException(type + " is not a whole number type.");
+    }
+    @SuppressWarnings("unchecked")
+    ToLongFunction<Object> ownerGetter = (ToLongFunction<Object>) getter;
+    FieldAccessor accessor = new FieldAccessor() {
+      @Override
+      public Object get(Object owner) {
+        // Box the value to the wrapper of its own type, like reflection does.
+        long value = ownerGetter.applyAsLong(owner);
+        if (type == byte.class) {
+          return (byte) value;
+        }
+        if (type == short.class) {
+          return (short) value;
+        }
+        if (type == int.class) {
+          return (int) value;
+        }
+        return value;
+      }
+
+      @Override
+      public long getLong(Object owner) {
+        return ownerGetter.applyAsLong(owner);
+      }
+    };
+    return new GeneratedField<>(name, type, accessor, annotations, new Annotation[0][]);
+  }
+
+  String getName() {
+    return name;
+  }
+
+  Class<?> getType() {
+    return type;
+  }
+
+  FieldAccessor getAccessor() {
+    return accessor;
+  }
+
+  Annotation[] getAnnotations() {
+    return annotations;
+  }
+
+  Annotation[][] getElementAnnotations() {
+    return elementAnnotations;
+  }
+
+  private final String name;
+  private final Class<?> type;
+  private final FieldAccessor accessor;
+  private final Annotation[] annotations;
+  private final Annotation[][] elementAnnotations;
+}
@@ -0,0 +1,23 @@
+package validator;
+
+import java.util.List;
+
+/**
+ * Validation plan of a @Constrained class generated at compile time by ConstrainedProcessor.
+ * Validators use it instead of reading the class through reflection. Implementations are found
+ * with java.util.ServiceLoader.
+ *
+ * @param <T> the class described by this plan.
+ */
+public interface GeneratedPlan<T> {
+
+  /**
+   * @return the class described by this plan.
+   */
+  Class<T> type();
+
+  /**
+   * @return fields of the class to be checked, in declaration order.
+   */
+  List<GeneratedField<T>> fields();
+}
@@ -0,0 +1,99 @@
+package validator;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of plans generated by ConstrainedProcessor. Validators consult it before falling back
+ * to reflection. The registered plans of a class loader are listed once, and each plan is looked
+ * up once per class.
+ */
+final class GeneratedPlans {
+
+  private GeneratedPlans() {
+  }
+
+  /**
+   * Finds the generated plan of given class.
+   *
+   * @param type a @Constrained class.
+   * @return generated plan, or null if the class wasn't processed at compile time.
+   */
+  static GeneratedPlan<?> find(Class<?> type) {
+    return PLANS.get(type).orElse(null);
+  }
+
+  /**
+   * Creates the generated plan of given class, if one is registered in its class loader.
+   *
+   * @param type a @Constrained class.
+   * @return generated plan, or empty if the class wasn't processed at compile time.
+   * @throws ValidationException if the registered plan can't be created.
+   */
+  private static Optional<GeneratedPlan<?>> load(Class<?> type) {
+    String planName = planName(type.getName());
+    ClassLoader loader = type.getClassLoader();
+    if (!registeredPlans(loader).contains(planName)) {
+      return Optional.empty();
+    }
+    try {
+      // Providers are instantiated like ServiceLoader does, with their public constructor.
+      GeneratedPlan<?> plan = (GeneratedPlan<?>) Class.forName(planName, true, loader)
+          .getConstructor().newInstance();
+      return plan.type() == type ? Optional.of(plan) : Optional.empty();
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new ValidationException(PLAN_NOT_CREATED_MSG + planName, e);
+    }
+  }
+
+  /**
+   * @param loader class loader of @Constrained classes, null for the bootstrap loader.
+   * @return binary names of the plans registered with ServiceLoader in the loader.
+   */
+  @SuppressWarnings("rawtypes")
+  private static Set<String> registeredPlans(ClassLoader loader) {
+    synchronized (REGISTERED) {
+      Set<String> names = REGISTERED.get(loader);
+      if (names == null) {
+        ServiceLoader<GeneratedPlan> plans = loader == null
+            ? ServiceLoader.loadInstalled(GeneratedPlan.class)
+            : ServiceLoader.load(GeneratedPlan.class, loader);
+        names = plans.stream()
+            .map(provider -> provider.type().getName())
+            .collect(Collectors.toUnmodifiableSet());
+        REGISTERED.put(loader, names);
+      }
+      return names;
+    }
+  }
+
+  /**
+   * Builds the name of the generated plan class.
+   * example: validator.BookingForm$Guest -> validator.BookingForm_Guest_ConstrainedPlan
+   *
+   * @param binaryName binary name of a @Constrained class.
+   * @return binary name of its generated plan.
+   */
+  static String planName(String binaryName) {
+    int packageEnd = binaryName.lastIndexOf('.') + 1;
+    return binaryName.substring(0, packageEnd)
+        + binaryName.substring(packageEnd).replace('$', '_') + PLAN_SUFFIX;
+  }
+
+  // Names of registered plans by class loader. Only names are kept, so loaders can be unloaded.
+  private static final Map<ClassLoader, Set<String>> REGISTERED = new WeakHashMap<>();
+  // Generated plans, looked up once per class.
+  private static final ClassValue<Optional<GeneratedPlan<?>>> PLANS = new ClassValue<>() {
+    @Override
+    protected Optional<GeneratedPlan<?>> computeValue(Class<?> type) {
+      return load(type);
+    }
+  };
+
+  static final String PLAN_SUFFIX = "_ConstrainedPlan";
+  static final String PLAN_NOT_CREATED_MSG = "ERROR: cannot create generated validation plan ";
+}
@@ -0,0 +1,121 @@
+package validator;
+
+import java.util.Arrays;
+
+/**
+ * Groups of constraints selected for a validation. Selected groups are compared as a set, so that
+ * validations of the same groups in any order share their plans.
+ */
+final class Groups {
+
+  /**
+   * @param array selected groups, without duplicates.
+   */
+  private Groups(Class<?>[] array) {
+    this.array = array;
+    // Same as the hash of a set of the groups, so the order of the groups doesn't matter.
+    int sum = 0;
+    for (Class<?> group : array) {
+      sum += group.hashCode();
+    }
+    hash = sum;
+  }
+
+  /**
+   * @param groups selected groups, none for Default.
+   * @return the groups as a set.
+   * @throws ValidationException if a group is null.
+   */
+  static Groups of(Class<?>... groups) {
+    if (groups == null) {
+      throw new ValidationException(NULL_GROUP_MSG);
+    }
+    // Validations usually select a group or two, so duplicates are found by a linear search.
+    Class<?>[] distinct = new Class<?>[groups.length];
+    int count = 0;
+    for (Class<?> group : groups) {
+      if (group == null) {
+        throw new ValidationException(NULL_GROUP_MSG);
+      }
+      if (indexOf(distinct, count, group) < 0) {
+        distinct[count++] = group;
+      }
+    }
+    if (count == 0 || count == 1 && distinct[0] == Default.class) {
+      return DEFAULT;
+    }
+    return new Groups(count == distinct.length ? distinct : Arrays.copyOf(distinct, count));
+  }
+
+  /**
+   * @param groups array of groups.
+   * @param count  number of groups to be searched, from the first one.
+   * @param group  group to be found.
+   * @return index of the group, or -1 if it's not there.
+   */
+  private static int indexOf(Class<?>[] groups, int count, Class<?> group) {
+    for (int i = 0; i < count; ++i) {
+      if (groups[i] == group) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if a constraint is selected. A constraint is selected if one of its groups is selected,
+   * or is extended by a selected group.
+   *
+   * @param constraintGroups groups of the constraint, none for Default.
+   * @return true if the constraint is to be checked.
+   */
+  boolean selects(Class<?>[] constraintGroups) {
+    if (constraintGroups.length == 0) {
+      constraintGroups = DEFAULT.array;
+    }
+    for (Class<?> constraintGroup : constraintGroups) {
+      for (Class<?> group : array) {
+        if (constraintGroup.isAssignableFrom(group)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Groups)) {
+      return false;
+    }
+    Groups other = (Groups) o;
+    if (hash != other.hash || array.length != other.array.length) {
+      return false;
+    }
+    for (Class<?> group : array) {
+      if (indexOf(other.array, other.array.length, group) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  // Selected groups, each once, in the order they were given.
+  private final Class<?>[] array;
+  // Hash of the groups, computed once.
+  private final int hash;
+
+  static final Groups DEFAULT = new Groups(new Class<?>[] {Default.class});
+
+  static final String NULL_GROUP_MSG = "ERROR: validation group must not be null.";
+  static final String UNSUPPORTED_GROUPS_MSG =
+      "ERROR: this validator only checks constraints of the Default group.";
+}
@@ -16,4 +16,9 @@ public @interface InRange {
   long min();
 
   long max();
+
+  /**
+   * @return groups the constraint belongs to. A constraint without groups belongs to Default.
+   */
+  Class<?>[] groups() default {};
 }
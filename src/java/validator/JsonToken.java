@@ -0,0 +1,62 @@
+package validator;
+
+/**
+ * Tokens of a JSON document, as returned by a TokenSource.
+ */
+public enum JsonToken {
+
+  /**
+   * '{', the start of an object.
+   */
+  START_OBJECT,
+
+  /**
+   * '}', the end of an object.
+   */
+  END_OBJECT,
+
+  /**
+   * '[', the start of an array.
+   */
+  START_ARRAY,
+
+  /**
+   * ']', the end of an array.
+   */
+  END_ARRAY,
+
+  /**
+   * Name of an object member, followed by its value.
+   */
+  FIELD_NAME,
+
+  /**
+   * A string value.
+   */
+  STRING,
+
+  /**
+   * A number value.
+   */
+  NUMBER,
+
+  /**
+   * The literal true.
+   */
+  TRUE,
+
+  /**
+   * The literal false.
+   */
+  FALSE,
+
+  /**
+   * The literal null.
+   */
+  NULL,
+
+  /**
+   * There are no more tokens.
+   */
+  END_DOCUMENT
+}
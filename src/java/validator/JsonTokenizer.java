@@ -0,0 +1,335 @@
+package validator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * Minimal JSON tokenizer. The document is read through a small buffer and checked to be
+ * well-formed as it goes, so only the current token is held in memory.
+ */
+public final class JsonTokenizer implements TokenSource {
+
+  /**
+   * @param reader source of the document. It's not closed by the tokenizer.
+   */
+  public JsonTokenizer(Reader reader) {
+    if (reader == null) {
+      throw new ValidationException(NULL_INPUT_MSG);
+    }
+    this.reader = reader;
+    buffer = new char[BUFFER_SIZE];
+    containers = new boolean[INITIAL_DEPTH];
+    builder = new StringBuilder();
+    state = EXPECT_VALUE;
+  }
+
+  /**
+   * @param json the document.
+   */
+  public JsonTokenizer(String json) {
+    this(json == null ? null : new StringReader(json));
+  }
+
+  @Override
+  public JsonToken next() {
+    int c = skipWhitespace();
+    if (state == DONE) {
+      if (c != EOF) {
+        throw malformed("unexpected data after the document");
+      }
+      return JsonToken.END_DOCUMENT;
+    }
+    if (c == EOF) {
+      throw malformed("unexpected end of the document");
+    }
+    // Closing brackets may follow an opening bracket or a value, but not a comma.
+    if ((c == '}' || c == ']') && (state == EXPECT_FIRST || state == EXPECT_COMMA)) {
+      boolean object = c == '}';
+      if (containers[depth - 1] != object) {
+        throw malformed("unexpected '" + (char) c + "'");
+      }
+      ++pos;
+      --depth;
+      endValue();
+      return object ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+    }
+    if (state == EXPECT_COMMA) {
+      if (c != ',') {
+        throw malformed("expected ',' or a closing bracket");
+      }
+      ++pos;
+      c = skipWhitespace();
+      state = containers[depth - 1] ? EXPECT_NAME : EXPECT_VALUE;
+    }
+    if (state == EXPECT_NAME || state == EXPECT_FIRST && containers[depth - 1]) {
+      if (c != '"') {
+        throw malformed("expected a field name");
+      }
+      ++pos;
+      text = readString();
+      if (skipWhitespace() != ':') {
+        throw malformed("expected ':'");
+      }
+      ++pos;
+      state = EXPECT_VALUE;
+      return JsonToken.FIELD_NAME;
+    }
+    return readValue(c);
+  }
+
+  @Override
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Reads a value, or the start of an object or array.
+   *
+   * @param c first character of the value.
+   * @return token of the value.
+   */
+  private JsonToken readValue(int c) {
+    if (c == '{' || c == '[') {
+      ++pos;
+      if (depth == containers.length) {
+        containers = Arrays.copyOf(containers, depth * 2);
+      }
+      containers[depth++] = c == '{';
+      state = EXPECT_FIRST;
+      return c == '{' ? JsonToken.START_OBJECT : JsonToken.START_ARRAY;
+    }
+    JsonToken token;
+    if (c == '"') {
+      ++pos;
+      text = readString();
+      token = JsonToken.STRING;
+    } else if (c == '-' || c >= '0' && c <= '9') {
+      text = readNumber();
+      token = JsonToken.NUMBER;
+    } else if (c == 't') {
+      readLiteral("true");
+      token = JsonToken.TRUE;
+    } else if (c == 'f') {
+      readLiteral("false");
+      token = JsonToken.FALSE;
+    } else if (c == 'n') {
+      readLiteral("null");
+      token = JsonToken.NULL;
+    } else {
+      throw malformed("unexpected character '" + (char) c + "'");
+    }
+    endValue();
+    return token;
+  }
+
+  /**
+   * Reads the contents of a string after its opening quote, up to and including the closing quote.
+   *
+   * @return contents of the string without escapes.
+   */
+  private String readString() {
+    builder.setLength(0);
+    while (true) {
+      // Characters that need no special handling are copied in runs.
+      int start = pos;
+      while (pos < limit && buffer[pos] != '"' && buffer[pos] != '\\' && buffer[pos] >= ' ') {
+        ++pos;
+      }
+      builder.append(buffer, start, pos - start);
+      int c = peek();
+      if (c == EOF) {
+        throw malformed("unterminated string");
+      }
+      if (c == '"') {
+        ++pos;
+        return builder.toString();
+      }
+      if (c == '\\') {
+        ++pos;
+        builder.append(readEscape());
+      } else if (c < ' ') {
+        throw malformed("control character in a string");
+      }
+    }
+  }
+
+  /**
+   * @return character of the escape sequence after a backslash.
+   */
+  private char readEscape() {
+    int c = peek();
+    ++pos;
+    switch (c) {
+      case '"':
+      case '\\':
+      case '/':
+        return (char) c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        int code = 0;
+        for (int i = 0; i < 4; ++i) {
+          int digit = Character.digit(peek(), 16);
+          if (digit < 0) {
+            throw malformed("wrong unicode escape");
+          }
+          ++pos;
+          code = code * 16 + digit;
+        }
+        return (char) code;
+      default:
+        throw malformed("wrong escape sequence");
+    }
+  }
+
+  /**
+   * @return text of a number, checked to follow JSON grammar.
+   */
+  private String readNumber() {
+    builder.setLength(0);
+    if (peek() == '-') {
+      appendNext();
+    }
+    int c = peek();
+    if (c == '0') {
+      appendNext();
+    } else if (c >= '1' && c <= '9') {
+      appendDigits();
+    } else {
+      throw malformed("wrong number");
+    }
+    if (peek() == '.') {
+      appendNext();
+      appendDigits();
+    }
+    if (peek() == 'e' || peek() == 'E') {
+      appendNext();
+      if (peek() == '+' || peek() == '-') {
+        appendNext();
+      }
+      appendDigits();
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Appends one or more digits to the builder.
+   */
+  private void appendDigits() {
+    int c = peek();
+    if (c < '0' || c > '9') {
+      throw malformed("wrong number");
+    }
+    do {
+      appendNext();
+      c = peek();
+    } while (c >= '0' && c <= '9');
+  }
+
+  private void appendNext() {
+    builder.append((char) peek());
+    ++pos;
+  }
+
+  private void readLiteral(String literal) {
+    for (int i = 0; i < literal.length(); ++i) {
+      if (peek() != literal.charAt(i)) {
+        throw malformed("unexpected literal");
+      }
+      ++pos;
+    }
+  }
+
+  /**
+   * A value was read, so it's followed by a comma, a closing bracket or the end of the document.
+   */
+  private void endValue() {
+    state = depth == 0 ? DONE : EXPECT_COMMA;
+  }
+
+  /**
+   * @return next character that is not whitespace, without consuming it, or EOF.
+   */
+  private int skipWhitespace() {
+    int c = peek();
+    while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+      ++pos;
+      c = peek();
+    }
+    return c;
+  }
+
+  /**
+   * @return next character without consuming it, or EOF at the end of the document.
+   */
+  private int peek() {
+    if (pos == limit) {
+      fill();
+    }
+    return pos < limit ? buffer[pos] : EOF;
+  }
+
+  private void fill() {
+    offset += limit;
+    pos = 0;
+    try {
+      limit = Math.max(reader.read(buffer), 0);
+    } catch (IOException e) {
+      limit = 0;
+      throw new ValidationException(READ_ERROR_MSG, e);
+    }
+  }
+
+  private ValidationException malformed(String reason) {
+    return new ValidationException(MALFORMED_MSG + (offset + pos) + ": " + reason);
+  }
+
+  private final Reader reader;
+  // Characters read from the reader and not consumed yet.
+  private final char[] buffer;
+  // Index of the next character in the buffer.
+  private int pos;
+  // Number of characters in the buffer.
+  private int limit;
+  // Number of characters read before the buffer.
+  private long offset;
+  // Open objects and arrays, true for objects.
+  private boolean[] containers;
+  // Number of open objects and arrays.
+  private int depth;
+  // What may come next.
+  private int state;
+  // Text of current token.
+  private String text;
+  // Collects the text of strings and numbers.
+  private final StringBuilder builder;
+
+  // A value, at the start of the document, after ':' or after a comma in an array.
+  private static final int EXPECT_VALUE = 0;
+  // The first field name or value after an opening bracket, or the closing bracket.
+  private static final int EXPECT_FIRST = 1;
+  // A field name after a comma in an object.
+  private static final int EXPECT_NAME = 2;
+  // A comma or a closing bracket after a value.
+  private static final int EXPECT_COMMA = 3;
+  // The end of the document.
+  private static final int DONE = 4;
+
+  private static final int EOF = -1;
+  private static final int BUFFER_SIZE = 4096;
+  private static final int INITIAL_DEPTH = 8;
+
+  static final String NULL_INPUT_MSG = "ERROR: cannot read null JSON input.";
+  static final String READ_ERROR_MSG = "ERROR: cannot read JSON input.";
+  static final String MALFORMED_MSG = "ERROR: malformed JSON at position ";
+}
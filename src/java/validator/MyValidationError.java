@@ -1,5 +1,7 @@
 package validator;
 
+import java.util.Objects;
+
 public class MyValidationError implements ValidationError {
 
   public MyValidationError(String message, String path, Object failedValue) {
@@ -8,6 +10,17 @@ public class MyValidationError implements ValidationError {
     this.failedValue = failedValue;
   }
 
+  /**
+   * @param message      validation error message.
+   * @param propertyPath path to failed value, rendered only when getPath() is called.
+   * @param failedValue  value that failed validation.
+   */
+  public MyValidationError(String message, PropertyPath propertyPath, Object failedValue) {
+    this.message = message;
+    this.propertyPath = propertyPath;
+    this.failedValue = failedValue;
+  }
+
   @Override
   public String getMessage() {
     return message;
@@ -15,15 +28,67 @@ public class MyValidationError implements ValidationError {
 
   @Override
   public String getPath() {
+    if (path == null) {
+      // PropertyPath remembers its text, so it's not rendered twice.
+      path = propertyPath.toString();
+    }
     return path;
   }
 
+  @Override
+  public PropertyPath getPropertyPath() {
+    if (propertyPath == null) {
+      propertyPath = PropertyPath.parse(path);
+    }
+    return propertyPath;
+  }
+
   @Override
   public Object getFailedValue() {
     return failedValue;
   }
 
+  /**
+   * Errors are equal if they have the same message, the same path and equal failed values. Paths
+   * are compared as text, so a map key "1" and a list index 1 are at the same path, but a path
+   * that was not rendered yet is compared by its segments instead.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof MyValidationError)) {
+      return false;
+    }
+    MyValidationError other = (MyValidationError) o;
+    return Objects.equals(message, other.message)
+        && hasSamePath(other)
+        && Objects.equals(failedValue, other.failedValue);
+  }
+
+  @Override
+  public int hashCode() {
+    // Failed values may be large containers, so they are left to equals(). PropertyPath has the
+    // same hash as its text.
+    int pathHash = path != null ? path.hashCode() : propertyPath.hashCode();
+    return 31 * Objects.hashCode(message) + pathHash;
+  }
+
+  /**
+   * @param other another error.
+   * @return true if the paths of both errors have the same text.
+   */
+  private boolean hasSamePath(MyValidationError other) {
+    if (path != null && other.path != null) {
+      return path.equals(other.path);
+    }
+    return getPropertyPath().hasSameText(other.getPropertyPath());
+  }
+
   private final String message;
-  private final String path;
+  // At least one of the representations of the path is set, the other one is made on demand.
+  private String path;
+  private PropertyPath propertyPath;
   private final Object failedValue;
 }
@@ -1,266 +1,979 @@
 package validator;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedParameterizedType;
-import java.lang.reflect.AnnotatedType;
-import java.lang.reflect.Field;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MyValidator implements Validator {
 
+  /**
+   * Creates a validator that reads fields with reflection. The validator holds no per-call state,
+   * so a single instance can be shared between threads.
+   */
   public MyValidator() {
-    errors = new HashSet<>();
-    errorMessage = new StringBuilder();
-    path = new LinkedList<>();
+    this(ValidatorConfig.defaults());
+  }
+
+  /**
+   * Creates a validator. The validator holds no per-call state, so a single instance can be shared
+   * between threads.
+   *
+   * @param mode how the fields of validated objects are read.
+   */
+  public MyValidator(AccessMode mode) {
+    this(ValidatorConfig.defaults().withAccessMode(mode));
+  }
+
+  /**
+   * Creates a validator. The validator holds no per-call state, so a single instance can be shared
+   * between threads.
+   *
+   * @param config settings of the validator.
+   */
+  public MyValidator(ValidatorConfig config) {
+    if (config == null) {
+      throw new ValidationException(ValidatorConfig.NULL_SETTING_MSG);
+    }
+    this.config = config;
+    this.mode = config.getAccessMode();
+    this.resultCache = config.getResultCacheSize() > 0
+        ? new ResultCache(config.getResultCacheSize())
+        : null;
+    this.listener = config.isListening() ? config.getListener() : null;
+  }
+
+  /**
+   * Looks for errors in given object's fields based on annotations from this library.
+   *
+   * @param object object to be checked.
+   * @return set of discovered validation errors, limited according to the settings.
+   */
+  @Override
+  public ViolationSet validate(Object object) {
+    return validate(object, config.isFailFast(), Groups.DEFAULT);
+  }
+
+  /**
+   * Looks for errors in given object's fields, checking only the constraints of given groups. The
+   * plan of each class is built once per set of groups, so constraints of other groups cost
+   * nothing. Results of immutable objects are only cached for Default.
+   *
+   * @param object object to be checked.
+   * @param groups groups of constraints to be checked, none for Default.
+   * @return set of discovered validation errors, limited according to the settings.
+   */
+  @Override
+  public ViolationSet validate(Object object, Class<?>... groups) {
+    return validate(object, config.isFailFast(), Groups.of(groups));
+  }
+
+  /**
+   * Checks if given object has no validation errors. Stops at the first error regardless of the
+   * settings, skipping the rest of the object graph.
+   *
+   * @param object object to be checked.
+   * @return true if no validation errors were found.
+   */
+  @Override
+  public boolean isValid(Object object) {
+    return validate(object, true, Groups.DEFAULT).isEmpty();
+  }
+
+  /**
+   * Validates each object of a batch. Plans and the buffers of a single validation are shared by
+   * all the objects. A batch larger than the parallel threshold from the settings is split into
+   * chunks, which are validated on the executor from the settings.
+   *
+   * @param objects objects to be checked.
+   * @return sets of discovered validation errors by the index of the object in iteration order of
+   *     the collection, in ascending order. Valid objects are left out.
+   */
+  @Override
+  public Map<Integer, Set<ValidationError>> validateAll(Collection<?> objects) {
+    if (objects == null) {
+      throw new ValidationException(COLLECTION_NULL_MSG);
+    }
+    Object[] items = objects.toArray();
+    ValidationContext context = new ValidationContext(config, config.isFailFast());
+    if (!context.isParallel(items.length)) {
+      return validateItems(items, 0, items.length, context);
+    }
+    int chunkCount = (items.length - 1) / context.getParallelThreshold() + 1;
+    List<CompletableFuture<Map<Integer, Set<ValidationError>>>> futures = new ArrayList<>();
+    for (int chunk = 1; chunk < chunkCount; ++chunk) {
+      int from = (int) ((long) items.length * chunk / chunkCount);
+      int to = (int) ((long) items.length * (chunk + 1) / chunkCount);
+      // Forks don't split their lists, so that chunks never wait for each other.
+      ValidationContext fork = context.fork();
+      futures.add(CompletableFuture.supplyAsync(() -> validateItems(items, from, to, fork),
+          context.getExecutor()));
+    }
+    Map<Integer, Set<ValidationError>> results = validateItems(items, 0,
+        items.length / chunkCount, context.fork());
+    for (var future : futures) {
+      results.putAll(awaitChunk(future));
+    }
+    return results;
+  }
+
+  /**
+   * Validates the value at given path of an object and everything reachable from it, as validate()
+   * would, without checking the rest of the object. Plans of the classes along the path tell where
+   * the value is, so the cost depends on the length of the path and on what is under the value.
+   * Objects on the path are treated as already checked, so they are not checked again if the value
+   * refers back to them.
+   *
+   * @param object object to be checked.
+   * @param path   path to the value in the format of ValidationError.getPath(), e.g.
+   *               "guests[3].age". An empty path stands for the object itself.
+   * @return set of discovered validation errors, with paths starting at the object, limited
+   *     according to the settings. Empty if there is no element or map entry at the path.
+   * @throws ValidationException if the path refers to a field that doesn't exist.
+   */
+  @Override
+  public ViolationSet validateProperty(Object object, String path) {
+    return validateProperties(object, Collections.singletonList(path));
+  }
+
+  /**
+   * Validates the value at given path of an object like validateProperty(object, path), checking
+   * only the constraints of given groups along the way and under the value.
+   *
+   * @param object object to be checked.
+   * @param path   path to the value in the format of ValidationError.getPath().
+   * @param groups groups of constraints to be checked, none for Default.
+   * @return set of discovered validation errors, limited according to the settings.
+   * @throws ValidationException if the path refers to a field that doesn't exist, or a group is
+   *     null.
+   */
+  @Override
+  public ViolationSet validateProperty(Object object, String path, Class<?>... groups) {
+    return validateProperties(object, Collections.singletonList(path), groups);
   }
 
+  /**
+   * Validates the values at given paths of an object and everything reachable from them, as
+   * validateProperty() does for a single path. A path inside another one is validated with it.
+   *
+   * @param object object to be checked.
+   * @param paths  paths to the values in the format of ValidationError.getPath().
+   * @return set of discovered validation errors, limited according to the settings.
+   * @throws ValidationException if a path refers to a field that doesn't exist.
+   */
+  @Override
+  public ViolationSet validateProperties(Object object, Collection<String> paths) {
+    return validateProperties(object, paths, Groups.DEFAULT);
+  }
+
+  /**
+   * Validates the values at given paths of an object like validateProperties(object, paths),
+   * checking only the constraints of given groups.
+   *
+   * @param object object to be checked.
+   * @param paths  paths to the values in the format of ValidationError.getPath().
+   * @param groups groups of constraints to be checked, none for Default.
+   * @return set of discovered validation errors, limited according to the settings.
+   * @throws ValidationException if a path refers to a field that doesn't exist, or a group is
+   *     null.
+   */
   @Override
-  public Set<ValidationError> validate(Object object) {
+  public ViolationSet validateProperties(Object object, Collection<String> paths,
+      Class<?>... groups) {
+    return validateProperties(object, paths, Groups.of(groups));
+  }
+
+  private ViolationSet validateProperties(Object object, Collection<String> paths,
+      Groups groups) {
+    // Only the check of the class is needed, the plans are looked up along the paths.
+    planOf(object);
+    if (paths == null) {
+      throw new ValidationException(COLLECTION_NULL_MSG);
+    }
+    Set<PropertyPath> requested = new LinkedHashSet<>();
+    for (String path : paths) {
+      requested.add(PropertyPath.parse(path));
+    }
+    long startTime = listener != null ? System.nanoTime() : 0;
+    ValidationContext context = new ValidationContext(config, config.isFailFast(), groups);
+    context.markVisited(object);
+    for (PropertyPath path : requested) {
+      if (context.isDone()) {
+        break;
+      }
+      if (!isInside(path, requested)) {
+        context.setDepth(0);
+        validatePath(path, object, context);
+      }
+    }
+    context.report(object.getClass(), startTime);
+    return context.getErrors();
+  }
+
+  private ViolationSet validate(Object object, boolean failFast, Groups groups) {
+    ValidationPlan plan = planOf(object).forGroups(groups);
+    boolean cached = resultCache != null && plan.isImmutable() && groups == Groups.DEFAULT;
+    if (cached) {
+      // Any cached result tells if the object is valid, even if it was found without fail-fast.
+      ViolationSet result = resultCache.get(object);
+      if (result != null) {
+        return result;
+      }
+    }
+    long startTime = listener != null ? System.nanoTime() : 0;
+    // Everything that changes during traversal lives in a context of this call.
+    ValidationContext context = new ValidationContext(config, failFast, groups);
+    context.markVisited(object);
+    validateObject(plan, object, context);
+    context.report(object.getClass(), startTime);
+    ViolationSet result = context.getErrors();
+    // Only complete results are cached, not the ones cut short by isValid().
+    if (cached && failFast == config.isFailFast()) {
+      resultCache.put(object, result);
+    }
+    return result;
+  }
+
+  /**
+   * Validates a range of batch items with a single context.
+   *
+   * @param items   objects to be checked.
+   * @param from    index of the first object to be checked.
+   * @param to      index after the last object to be checked.
+   * @param context state of current validation, reset after each object.
+   * @return sets of discovered validation errors by the index of the object.
+   */
+  private Map<Integer, Set<ValidationError>> validateItems(Object[] items, int from, int to,
+      ValidationContext context) {
+    Map<Integer, Set<ValidationError>> results = new LinkedHashMap<>();
+    // Batches usually consist of objects of the same class, so the last plan is reused.
+    Class<?> lastType = null;
+    ValidationPlan plan = null;
+    for (int i = from; i < to; ++i) {
+      if (items[i] == null || items[i].getClass() != lastType) {
+        plan = planOf(items[i]);
+        lastType = items[i].getClass();
+      }
+      boolean cached = resultCache != null && plan.isImmutable();
+      ViolationSet errors = cached ? resultCache.get(items[i]) : null;
+      if (errors == null) {
+        long startTime = listener != null ? System.nanoTime() : 0;
+        context.markVisited(items[i]);
+        validateObject(plan, items[i], context);
+        context.report(lastType, startTime);
+        errors = context.getErrors();
+        if (cached) {
+          resultCache.put(items[i], errors);
+        }
+        context.reset();
+      }
+      if (!errors.isEmpty()) {
+        results.put(i, errors);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Returns the plan of the object to be validated by user's call.
+   *
+   * @param object object to be checked.
+   * @return plan of object's class.
+   */
+  private ValidationPlan planOf(Object object) {
     if (object == null) {
       throw new ValidationException(OBJ_NULL_MSG);
     }
-    // Renew the set of mistakes
-    errors = new HashSet<>();
     //Check if object's class has @Constrained annotation, otherwise throw an exception.
     //This only fires on user's call of validate().
-    if (!object.getClass().isAnnotationPresent(Constrained.class)) {
+    ValidationPlan plan = lookUpPlan(object.getClass());
+    if (!plan.isConstrained()) {
       throw new ValidationException(NO_CONSTRAINED_MSG);
     }
-    validateRecursive(object);
-    return errors;
+    return plan;
+  }
+
+  /**
+   * @param type class of an object to be checked.
+   * @return cached plan of the class. The lookup is reported to the listener, if there is one.
+   */
+  private ValidationPlan lookUpPlan(Class<?> type) {
+    return ValidationPlan.of(type, mode, listener);
+  }
+
+  /**
+   * @param path      a path.
+   * @param requested all the paths to be validated.
+   * @return true if the path leads inside the value at another requested path.
+   */
+  private static boolean isInside(PropertyPath path, Set<PropertyPath> requested) {
+    for (PropertyPath parent = path.getParent(); parent != null; parent = parent.getParent()) {
+      if (requested.contains(parent)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
-   * Validates an object. Can be called recursively without consequences.
+   * Follows a path from the validated object to a value, then validates the value and everything
+   * reachable from it.
    *
-   * @param object object to be inspected.
+   * @param path    path to the value.
+   * @param object  object where the path starts.
+   * @param context state of current validation, points at the object.
+   */
+  private void validatePath(PropertyPath path, Object object, ValidationContext context) {
+    if (path.isRoot()) {
+      validateObject(context.forGroups(lookUpPlan(object.getClass())), object, context);
+      return;
+    }
+    Object value = object;
+    // Plan of the declared type of the value, null for the validated object.
+    ElementPlan plan = null;
+    for (PropertyPath segment : path.getSegments()) {
+      boolean last = segment == path;
+      // An Optional holds its value at its own path.
+      while (value instanceof Optional<?> && plan != null) {
+        value = ((Optional<?>) value).orElse(null);
+        plan = plan.getElements();
+      }
+      if (value == null) {
+        // There is nothing at the path, so there is nothing to check.
+        return;
+      }
+      if (segment.getName() != null) {
+        FieldPlan field = fieldOf(value, segment.getName(), path, context);
+        context.markVisited(value);
+        if (last) {
+          validateField(field, value, context);
+          break;
+        }
+        context.enterField(field.getName());
+        plan = field.getElements();
+        value = field.getValue(value);
+      } else if (segment.isKey() || value instanceof Map<?, ?>) {
+        if (plan == null || !(value instanceof Map<?, ?>)) {
+          throw new ValidationException(NO_SUCH_PROPERTY_MSG + path);
+        }
+        // Keys that look like numbers are parsed as indices.
+        Object key = segment.isKey() ? segment.getKey() : String.valueOf(segment.getIndex());
+        Map.Entry<?, ?> entry = entryOf((Map<?, ?>) value, key);
+        if (entry == null) {
+          return;
+        }
+        context.enterKey(entry.getKey());
+        if (last) {
+          validateElement(plan.getElements(), entry.getKey(), typeNameOf(entry.getKey()),
+              context);
+          if (!context.isDone()) {
+            validateElement(plan.getValues(), entry.getValue(), typeNameOf(entry.getValue()),
+                context);
+          }
+          break;
+        }
+        plan = plan.getValues();
+        value = entry.getValue();
+      } else {
+        if (plan == null) {
+          throw new ValidationException(NO_SUCH_PROPERTY_MSG + path);
+        }
+        Object element = elementOf(value, segment.getIndex(), path);
+        if (element == ABSENT) {
+          return;
+        }
+        context.enterIndex(segment.getIndex());
+        if (last) {
+          validateElement(plan.getElements(), element, typeNameOf(element), context);
+          break;
+        }
+        plan = plan.getElements();
+        value = element;
+      }
+    }
+    traverse(context);
+  }
+
+  /**
+   * @param owner   an object on the path.
+   * @param name    name of a field of the object.
+   * @param path    the whole path, for the exception.
+   * @param context state of current validation, with the selected groups.
+   * @return plan of the field, with the constraints of the selected groups.
+   * @throws ValidationException if the object has no such field to be checked.
    */
-  private void validateRecursive(Object object) {
-    // Get all fields of this object
-    Field[] declaredFields = object.getClass().getDeclaredFields();
-    // Check each field separately
-    for (Field field : declaredFields) {
-      errors.addAll(validateField(field, object));
+  private FieldPlan fieldOf(Object owner, String name, PropertyPath path,
+      ValidationContext context) {
+    ValidationPlan plan = context.forGroups(lookUpPlan(owner.getClass()));
+    int index = plan.isConstrained() ? plan.indexOf(name) : -1;
+    if (index < 0) {
+      throw new ValidationException(NO_SUCH_PROPERTY_MSG + path);
     }
+    return plan.getFields()[index];
   }
 
   /**
-   * Check the annotations of the field and determines if they are applied correctly. Also, checks
-   * if the field value meets the annotation's rules. Also, checks the insides of the field if its
-   * value is an object whose class has a @Constrained annotation. Also, if the field is a list,
-   * checks its elements accordingly.
+   * @param container a List, a Set or an array on the path.
+   * @param index     index of an element, in iteration order for a Set.
+   * @param path      the whole path, for the exception.
+   * @return the element, or ABSENT if the container is shorter.
+   * @throws ValidationException if the value is not a container with indices.
+   */
+  private static Object elementOf(Object container, int index, PropertyPath path) {
+    if (container instanceof List<?>) {
+      List<?> list = (List<?>) container;
+      return index < list.size() ? list.get(index) : ABSENT;
+    }
+    if (container instanceof Set<?>) {
+      Iterator<?> iterator = ((Set<?>) container).iterator();
+      for (int i = 0; i < index && iterator.hasNext(); ++i) {
+        iterator.next();
+      }
+      return iterator.hasNext() ? iterator.next() : ABSENT;
+    }
+    if (container.getClass().isArray()) {
+      return index < Array.getLength(container) ? Array.get(container, index) : ABSENT;
+    }
+    throw new ValidationException(NO_SUCH_PROPERTY_MSG + path);
+  }
+
+  /**
+   * Finds the entry of a map at a path. Keys are written in paths as text, so a key of another
+   * type is matched by its String form.
    *
-   * @param field the field to be checked.
-   * @param owner object where the field resides.
-   * @return a set of found validation errors from this field.
-   */
-  private Set<ValidationError> validateField(Field field, Object owner) {
-    // Inner classes contain a field called 'this$0', which holds
-    // the reference to outer class. We don't need to check this field,
-    // or any other synthetic field (created by the compiler).
-    if (field.isSynthetic()) {
-      return new HashSet<>();
-    }
-    // Make a set for all errors belonging to this particular field
-    Set<ValidationError> fieldErrors = new HashSet<>();
-    // Check the annotations before field itself.
-    checkFieldAnnotations(field, owner);
-    // Get value of field.
-    Object fieldValue = null;
+   * @param map a Map on the path.
+   * @param key key from the path.
+   * @return the entry, or null if there is none.
+   */
+  private static Map.Entry<?, ?> entryOf(Map<?, ?> map, Object key) {
     try {
-      fieldValue = field.get(owner);
-    } catch (IllegalAccessException e) {/*Exception is impossible since field is set accessible explicitly.*/}
-    // Check if the field is an object of a @Constrained class.
-    // If so, check its fields as well.
-    validateInner(fieldValue, field.getName());
-    // Check if the field is a List<T>. If so, check what's inside
-    if (fieldValue instanceof List<?>) {
-      validateListField(field, (List<?>) fieldValue);
+      if (map.containsKey(key)) {
+        return new AbstractMap.SimpleImmutableEntry<>(key, map.get(key));
+      }
+    } catch (ClassCastException e) {
+      // Sorted maps can't compare the key with keys of another type.
+    }
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      if (String.valueOf(entry.getKey()).equals(key)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private static String typeNameOf(Object value) {
+    return value == null ? null : value.getClass().getTypeName();
+  }
+
+  /**
+   * Validates an object and everything reachable from it. Nested objects and lists are pushed onto
+   * the traversal stack of the context instead of the call stack, so the depth of the object graph
+   * doesn't affect the stack usage of this thread.
+   *
+   * @param plan    validation plan of object's class.
+   * @param object  object to be inspected.
+   * @param context state of current validation.
+   */
+  private void validateObject(ValidationPlan plan, Object object, ValidationContext context) {
+    context.pushFrame().ofObject(plan, object, context.getDepth());
+    traverse(context);
+  }
+
+  /**
+   * Takes frames from the traversal stack until it's empty or nothing else needs to be checked.
+   * Each step checks a field of an object or list elements, and may push more frames on top.
+   *
+   * @param context state of current validation.
+   */
+  private void traverse(ValidationContext context) {
+    TraversalFrame frame;
+    while ((frame = context.peekFrame()) != null && !context.isStopped()) {
+      // Frames above this one have left deeper levels behind, but not changed this frame's path.
+      context.setDepth(frame.getDepth());
+      if (frame.getKind() == TraversalFrame.OBJECT) {
+        stepObject(frame, context);
+      } else if (frame.getKind() == TraversalFrame.ELEMENTS) {
+        stepElements(frame, context);
+      } else {
+        stepEntries(frame, context);
+      }
+    }
+    context.clearFrames();
+  }
+
+  /**
+   * Checks the next field of an object, or removes the frame if all the fields are checked.
+   *
+   * @param frame   frame of the object.
+   * @param context state of current validation, points at the object.
+   */
+  private void stepObject(TraversalFrame frame, ValidationContext context) {
+    FieldPlan[] fields = frame.getPlan().getFields();
+    int next = frame.getCursor();
+    if (next == fields.length) {
+      context.popFrame();
+      return;
     }
-    return fieldErrors;
+    if (next == 0) {
+      context.countObject();
+    }
+    frame.setCursor(next + 1);
+    validateField(fields[next], frame.getObject(), context);
   }
 
   /**
-   * Check the annotations before the field itself.
+   * Check the annotations of the field and determines if they are applied correctly. Also, checks
+   * if the field value meets the annotation's rules. Also, pushes the value onto the traversal
+   * stack if its class has a @Constrained annotation, or if it's a container whose contents are to
+   * be checked.
    *
-   * @param field field that needs to be checked.
-   */
-  private void checkFieldAnnotations(Field field, Object owner) {
-    // Make field accessible.
-    field.setAccessible(true);
-    Checker fieldChecker = new Checker(field, owner);
-    // Get all annotations of field
-    Annotation[] declaredAnnotations = field.getAnnotatedType().getAnnotations();
-    // Check all annotations of current field
-    for (Annotation ann : declaredAnnotations) {
-      if (fieldChecker.isAnnotationInvalid(ann, errorMessage)) {
-        // Since field value doesn't follow the annotation's rules,
+   * @param field   plan of the field to be checked.
+   * @param owner   object where the field resides.
+   * @param context state of current validation.
+   */
+  private void validateField(FieldPlan field, Object owner, ValidationContext context) {
+    context.countField();
+    // Everything found below belongs to this field.
+    context.enterField(field.getName());
+    // Primitive numbers are neither nested objects nor containers, so only the annotations are
+    // checked.
+    if (field.isWholeNumber()) {
+      checkWholeNumberConstraints(field, owner, context);
+    } else {
+      // Get value of field.
+      Object fieldValue = field.getValue(owner);
+      // Check the annotations before field itself.
+      checkConstraints(field.getConstraints(), fieldValue, field.getTypeName(), context);
+      if (!context.isDone()) {
+        // Frames are taken in reverse order, so the contents are checked after the fields of
+        // the value if it's both a container and a @Constrained object.
+        pushContents(field.getElements(), fieldValue, context);
+        pushInner(fieldValue, context);
+      }
+    }
+    context.exit();
+  }
+
+  /**
+   * Checks if the value meets the rules of given constraints.
+   *
+   * @param constraints constraints of the annotations applied to the value.
+   * @param value       value to be checked.
+   * @param typeName    name of the type of the value.
+   * @param context     state of current validation, points at the value.
+   */
+  static void checkConstraints(Constraint[] constraints, Object value, String typeName,
+      ValidationContext context) {
+    for (Constraint constraint : constraints) {
+      if (!constraint.isValid(value, typeName)) {
+        // Since the value doesn't follow the annotation's rules,
         // create a ValidationError and add it to the set.
-        // Get name of failed field
-        String fieldName = field.getName();
-        // Add it to the path
-        path.add(fieldName);
-        // Get value of failed field
-        Object failedValue = null;
-        try {
-          failedValue = field.get(owner);
-        } catch (IllegalAccessException e) {
-          // Underlying field is always accessible because
-          // we made it so with field.setAccessible(true).
+        context.addError(value, constraint);
+        if (context.isDone()) {
+          return;
         }
-        errors.add(ErrorCreator.createError(failedValue, errorMessage.toString(), path));
-        // Remove failed field name from path
-        path.remove(path.size() - 1);
       }
-      errorMessage.setLength(0);
     }
   }
 
   /**
-   * If the field is an object of a class marked with @Constrained, checks the fields inside it.
+   * Check the annotations before a byte, short, int or long field without boxing its value.
    *
-   * @param fieldValue value of the field to be checked.
-   * @param fieldName  name of the field.
+   * @param field   plan of the field that needs to be checked.
+   * @param owner   object where the field resides.
+   * @param context state of current validation, points at the field.
    */
-  private void validateInner(Object fieldValue, String fieldName) {
-    // Check if the field value is not null and is an object of class with @Constrained annotation
-    if (fieldValue != null && fieldValue.getClass().isAnnotationPresent(Constrained.class)) {
-      // If we got here, it means we are going deeper ->
-      // we need to remember the path to newly found objects if they are invalid
-      ++level;
-      path.add(fieldName + ".");
-      // Recursively check the inner object.
-      validateRecursive(fieldValue);
-      // After we exit recursion, clean up the path
-      if (level > 0 && path.size() > 0) {
-        path.remove(path.size() - 1);
-        --level;
+  private void checkWholeNumberConstraints(FieldPlan field, Object owner,
+      ValidationContext context) {
+    long fieldValue = field.getLongValue(owner);
+    for (Constraint constraint : field.getConstraints()) {
+      if (!constraint.isValid(fieldValue, field.getTypeName())) {
+        // Value is boxed only when it's reported as failed.
+        context.addError(field.getValue(owner), constraint);
+        if (context.isDone()) {
+          return;
+        }
       }
     }
   }
 
   /**
-   * Checks the elements inside a list field.
+   * If the value is an object of a class marked with @Constrained, pushes it onto the traversal
+   * stack, so that the fields inside it are checked.
    *
-   * @param listField a list field.
-   * @param list      value of the list field.
+   * @param value   value to be checked.
+   * @param context state of current validation, points at the value.
+   * @return true if a frame was pushed.
    */
-  private void validateListField(Field listField, List<?> list) {
-    if (list != null) {
-      // Get annotated type of list field
-      AnnotatedType type = ((AnnotatedParameterizedType) listField.getAnnotatedType())
-          .getAnnotatedActualTypeArguments()[0];
-      // Validate list field in a recursive method
-      validateListRecursive(type, list, listField.getName());
+  private boolean pushInner(Object value, ValidationContext context) {
+    // Check if the value is not null and is an object of class with @Constrained annotation
+    if (value == null) {
+      return false;
+    }
+    ValidationPlan plan = context.forGroups(lookUpPlan(value.getClass()));
+    // Each object is checked once, which stops cycles and repeated checks of shared objects.
+    if (plan.isConstrained() && context.markVisited(value)) {
+      context.pushFrame().ofObject(plan, value, context.getDepth());
+      return true;
     }
+    return false;
   }
 
   /**
-   * Validates a list. Can be called recursively.
+   * If the value is a container, checks its contents according to the plan of its type: the
+   * elements of a List, a Set, an Optional or an array, or the keys and values of a Map. Contents
+   * that need further checking are pushed onto the traversal stack.
    *
-   * @param type     Annotated type of the list.
-   * @param list     the list itself.
-   * @param listName name of the list.
-   */
-  private void validateListRecursive(AnnotatedType type, List<?> list, String listName) {
-    // No need to check the list if its length is 0
-    if (list != null && list.size() > 0) {
-      // Get annotations before list parameter type
-      Annotation[] annotations = type.getAnnotations();
-      // Get parameter type of list elements
-      Class<?> listType = null;
-      for (var elem : list) {
-        if (elem != null) {
-          listType = elem.getClass();
-          break;
+   * @param plan    plan of the type of the value.
+   * @param value   value to be checked.
+   * @param context state of current validation, points at the value.
+   * @return true if a frame was pushed.
+   */
+  private boolean pushContents(ElementPlan plan, Object value, ValidationContext context) {
+    // Declared type tells if there is no need to look at the value.
+    if (value == null || !plan.isContainer()) {
+      return false;
+    }
+    if (value instanceof List<?> || value instanceof Set<?>) {
+      return pushElements(plan.getElements(), (Collection<?>) value, context);
+    }
+    if (value instanceof Map<?, ?>) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      if (map.isEmpty()) {
+        return false;
+      }
+      context.pushFrame().ofEntries(plan, map.entrySet().iterator(), context.getDepth());
+      return true;
+    }
+    if (value instanceof Optional<?>) {
+      return validateOptional(plan.getElements(), (Optional<?>) value, context);
+    }
+    if (value.getClass().isArray()) {
+      if (value.getClass().getComponentType().isPrimitive()) {
+        // Primitives are never containers or @Constrained objects, so nothing is pushed.
+        checkPrimitiveArray(plan.getElements().getConstraints(), value, context);
+        return false;
+      }
+      return pushElements(plan.getElements(), Arrays.asList((Object[]) value), context);
+    }
+    return false;
+  }
+
+  /**
+   * Pushes the elements of a List, a Set or an array onto the traversal stack. A container larger
+   * than the parallel threshold is validated right away, in chunks on several threads.
+   *
+   * @param elements plan of the elements.
+   * @param values   the elements.
+   * @param context  state of current validation, points at the container.
+   * @return true if a frame was pushed.
+   */
+  private boolean pushElements(ElementPlan elements, Collection<?> values,
+      ValidationContext context) {
+    // No need to check the container if its length is 0
+    if (values.isEmpty()) {
+      return false;
+    }
+    if (context.isParallel(values.size())) {
+      validateElementsInParallel(elements, values, context);
+      return false;
+    }
+    // Type of the elements is found during the walk over them.
+    context.pushFrame().ofElements(elements, values.iterator(), 0, null, context.getDepth());
+    return true;
+  }
+
+  /**
+   * Checks the value of an Optional at the path of the Optional itself.
+   *
+   * @param plan     plan of the type argument of the Optional.
+   * @param optional the Optional.
+   * @param context  state of current validation, points at the Optional.
+   * @return true if a frame was pushed.
+   */
+  private boolean validateOptional(ElementPlan plan, Optional<?> optional,
+      ValidationContext context) {
+    if (optional.isEmpty()) {
+      return false;
+    }
+    Object value = optional.get();
+    checkConstraints(plan.getConstraints(), value, value.getClass().getTypeName(), context);
+    if (context.isDone()) {
+      return false;
+    }
+    boolean pushed = pushContents(plan, value, context);
+    return pushInner(value, context) || pushed;
+  }
+
+  /**
+   * Checks the elements of an array of primitives. Elements of byte, short, int and long arrays
+   * are checked without boxing them.
+   *
+   * @param constraints constraints that are applied to each element.
+   * @param array       the array.
+   * @param context     state of current validation, points at the array.
+   */
+  private void checkPrimitiveArray(Constraint[] constraints, Object array,
+      ValidationContext context) {
+    if (constraints.length == 0) {
+      return;
+    }
+    String typeName = array.getClass().getComponentType().getTypeName();
+    if (array instanceof int[]) {
+      int[] values = (int[]) array;
+      for (int i = 0; i < values.length && !context.isDone(); ++i) {
+        checkWholeNumberElement(constraints, values[i], array, i, typeName, context);
+      }
+    } else if (array instanceof long[]) {
+      long[] values = (long[]) array;
+      for (int i = 0; i < values.length && !context.isDone(); ++i) {
+        checkWholeNumberElement(constraints, values[i], array, i, typeName, context);
+      }
+    } else if (array instanceof short[]) {
+      short[] values = (short[]) array;
+      for (int i = 0; i < values.length && !context.isDone(); ++i) {
+        checkWholeNumberElement(constraints, values[i], array, i, typeName, context);
+      }
+    } else if (array instanceof byte[]) {
+      byte[] values = (byte[]) array;
+      for (int i = 0; i < values.length && !context.isDone(); ++i) {
+        checkWholeNumberElement(constraints, values[i], array, i, typeName, context);
+      }
+    } else {
+      // Constraints of this library don't apply to other primitives, so they are just boxed.
+      int length = Array.getLength(array);
+      for (int i = 0; i < length && !context.isDone(); ++i) {
+        context.enterIndex(i);
+        checkConstraints(constraints, Array.get(array, i), typeName, context);
+        context.exit();
+      }
+    }
+  }
+
+  /**
+   * Checks an element of an array of whole numbers without boxing it.
+   *
+   * @param constraints constraints that are applied to each element.
+   * @param value       value of the element.
+   * @param array       the array, which the value is boxed from if it's reported as failed.
+   * @param index       index of the element.
+   * @param typeName    name of the type of the elements.
+   * @param context     state of current validation, points at the array.
+   */
+  private void checkWholeNumberElement(Constraint[] constraints, long value, Object array,
+      int index, String typeName, ValidationContext context) {
+    for (Constraint constraint : constraints) {
+      if (!constraint.isValid(value, typeName)) {
+        context.enterIndex(index);
+        context.addError(Array.get(array, index), constraint);
+        context.exit();
+        if (context.isDone()) {
+          return;
         }
       }
-      // If listType is still null, that means that all elements are null
-      if (listType == null) {
-        checkListTypeAnnotation(annotations, list, listName, "Unknown type");
+    }
+  }
+
+  /**
+   * Checks the next elements of a List, a Set or an array. Each element is visited once: its
+   * annotations are checked, then the element is pushed onto the traversal stack if its type is
+   * marked with @Constrained or if it's a container itself. The walk continues with the next
+   * element once the pushed ones are checked.
+   * example: List<@NotBlank String>, Set<GuestForm>, List<List<String>>
+   *
+   * @param frame   frame of the elements.
+   * @param context state of current validation, points at the container.
+   */
+  private void stepElements(TraversalFrame frame, ValidationContext context) {
+    // Iterator is used instead of get(i), which is slow for linked lists.
+    Iterator<?> iterator = frame.getIterator();
+    ElementPlan elements = frame.getElements();
+    int depth = context.getDepth();
+    while (iterator.hasNext()) {
+      Object element = iterator.next();
+      int index = frame.getCursor();
+      frame.setCursor(index + 1);
+      // Type of the elements is the type of the first element that is not null. Elements before
+      // it are null, and constraints don't need a type name to check nulls.
+      if (element != null && frame.getListTypeName() == null) {
+        frame.setListTypeName(element.getClass().getTypeName());
+      }
+      context.enterIndex(index);
+      boolean pushed = validateElement(elements, element, frame.getListTypeName(), context);
+      context.setDepth(depth);
+      if (pushed || context.isDone()) {
         return;
       }
-      // 1. Check the annotations before the parameter type and validate all contents accordingly
-      // example: List<@NotBlank String> list
-      checkListTypeAnnotation(annotations, list, listName, listType.getTypeName());
-      // 2. Check the contents of the list if their type is marked with @Constrained
-      // example: List<GuestForm> forms
-      checkListElemsIfConstrained(listType, list, listName);
-      // 3. If the element of the list is a list itself, enter recursion.
-      for (int i = 0; i < list.size(); ++i) {
-        if (list.get(i) instanceof List<?>) {
-          // Get the annotated type of inner list
-          AnnotatedType newType = ((AnnotatedParameterizedType) type)
-              .getAnnotatedActualTypeArguments()[0];
-          String newListName = listName + "[" + i + "]";
-          validateListRecursive(newType, (List<?>) list.get(i), newListName);
-        }
+    }
+    context.popFrame();
+  }
+
+  /**
+   * Checks the next entries of a map. Keys and values are checked according to the annotations of
+   * the type arguments of the map, at the path of the entry, e.g. "map[key]".
+   * example: Map<@NotBlank String, @NotNull GuestForm>
+   *
+   * @param frame   frame of the entries.
+   * @param context state of current validation, points at the map.
+   */
+  private void stepEntries(TraversalFrame frame, ValidationContext context) {
+    @SuppressWarnings("unchecked")
+    Iterator<Map.Entry<?, ?>> iterator = (Iterator<Map.Entry<?, ?>>) frame.getIterator();
+    ElementPlan keys = frame.getElements().getElements();
+    ElementPlan values = frame.getElements().getValues();
+    int depth = context.getDepth();
+    while (iterator.hasNext()) {
+      Map.Entry<?, ?> entry = iterator.next();
+      Object key = entry.getKey();
+      Object value = entry.getValue();
+      if (key != null && frame.getListTypeName() == null) {
+        frame.setListTypeName(key.getClass().getTypeName());
+      }
+      if (value != null && frame.getValueTypeName() == null) {
+        frame.setValueTypeName(value.getClass().getTypeName());
+      }
+      context.enterKey(key);
+      // Value is pushed last, so it's checked before the key.
+      boolean pushed = validateElement(keys, key, frame.getListTypeName(), context);
+      if (!context.isDone()) {
+        pushed |= validateElement(values, value, frame.getValueTypeName(), context);
+      }
+      context.setDepth(depth);
+      if (pushed || context.isDone()) {
+        return;
       }
     }
+    context.popFrame();
   }
 
   /**
-   * Checks the values inside a list according to the rules set by annotations.
+   * Checks an element of a container, then pushes it onto the traversal stack if it needs further
+   * checking.
    *
-   * @param annotations  annotations that are applied to each element of the list.
-   * @param list         the list itself.
-   * @param listName     name of the list.
-   * @param listTypeName name of the type of list elements.
-   */
-  private void checkListTypeAnnotation(Annotation[] annotations, List<?> list, String listName,
-      String listTypeName) {
-    Checker checker;
-    for (Annotation ann : annotations) {
-      for (int i = 0; i < list.size(); ++i) {
-        // Make a new checker for each value
-        checker = new Checker(list.get(i), listTypeName);
-        if (checker.isAnnotationInvalid(ann, errorMessage)) {
-          // Add list name to path + index of failed value
-          path.add(listName + "[" + i + "]");
-          // If the value in a list element doesn't follow annotation rules,
-          // create a corresponding Validation error and add it to the set.
-          errors.add(ErrorCreator.createError(list.get(i), errorMessage.toString(), path));
-          // Remove name of list field from path
-          path.remove(path.size() - 1);
-        }
-        errorMessage.setLength(0);
+   * @param plan     plan of the element type.
+   * @param element  the element.
+   * @param typeName name of the type of the elements, null if all elements so far were null.
+   * @param context  state of current validation, points at the element.
+   * @return true if a frame was pushed.
+   */
+  private boolean validateElement(ElementPlan plan, Object element, String typeName,
+      ValidationContext context) {
+    checkConstraints(plan.getConstraints(), element, typeName == null ? "Unknown type" : typeName,
+        context);
+    if (context.isDone()) {
+      return false;
+    }
+    // Frames are taken in reverse order, so the contents are checked after the fields of the
+    // element if it's both a container and a @Constrained object.
+    boolean pushed = pushContents(plan, element, context);
+    return pushInner(element, context) || pushed;
+  }
+
+  /**
+   * Splits a large container into chunks and validates them on the executor from the settings.
+   * The calling thread validates the first chunk itself. Errors of the chunks are merged in the
+   * order of the chunks, so the result is the same as if the container was validated
+   * sequentially. Chunks after the first one that is done stop early, as their errors would be
+   * left out anyway.
+   *
+   * @param elements plan of the elements.
+   * @param values   the elements.
+   * @param context  state of current validation, points at the container.
+   */
+  private void validateElementsInParallel(ElementPlan elements, Collection<?> values,
+      ValidationContext context) {
+    // Chunks are read from several threads, so linked lists and sets are copied first.
+    List<?> elementList = values instanceof List<?> && values instanceof RandomAccess
+        ? (List<?>) values
+        : Arrays.asList(values.toArray());
+    // All chunks need the type of the first element that is not null.
+    Class<?> listType = null;
+    for (var elem : elementList) {
+      if (elem != null) {
+        listType = elem.getClass();
+        break;
+      }
+    }
+    // If listType is still null, that means that all elements are null
+    String listTypeName = listType == null ? "Unknown type" : listType.getTypeName();
+    int size = elementList.size();
+    int chunkCount = (size - 1) / context.getParallelThreshold() + 1;
+    ValidationContext[] forks = new ValidationContext[chunkCount];
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkCount];
+    AtomicInteger firstDoneChunk = new AtomicInteger(chunkCount);
+    for (int chunk = 0; chunk < chunkCount; ++chunk) {
+      int from = (int) ((long) size * chunk / chunkCount);
+      int to = (int) ((long) size * (chunk + 1) / chunkCount);
+      // Each chunk starts at the path of the container, with a traversal stack of its own.
+      ValidationContext fork = context.fork(chunk, firstDoneChunk);
+      fork.pushFrame().ofElements(elements, elementList.subList(from, to).iterator(), from,
+          listTypeName, fork.getDepth());
+      forks[chunk] = fork;
+      if (chunk > 0) {
+        futures[chunk] = CompletableFuture.runAsync(() -> traverse(fork), context.getExecutor());
       }
     }
+    traverse(forks[0]);
+    // Forks look up the objects checked by this context, so it changes only once all are done.
+    for (int chunk = 1; chunk < chunkCount; ++chunk) {
+      awaitChunk(futures[chunk]);
+    }
+    for (ValidationContext fork : forks) {
+      context.join(fork);
+    }
   }
 
   /**
-   * Checks the insides of list elements if they belong to a type annotated by @Constrained.
+   * Waits for a chunk validated on another thread. Exceptions of the chunk are thrown as if it was
+   * validated on this thread.
    *
-   * @param listType type of list elements.
-   * @param list     the list itself.
-   * @param listName the name of the list.
-   */
-  private void checkListElemsIfConstrained(Class<?> listType, List<?> list, String listName) {
-    // Check if the class has @Constrained annotation.
-    // If so, validate each element of list
-    if (listType.isAnnotationPresent(Constrained.class)) {
-      for (int i = 0; i < list.size(); ++i) {
-        if (list.get(i) != null) {
-          String name = listName + "[" + i + "]";
-          validateInner(list.get(i), name);
-        }
+   * @param future completion of the chunk.
+   * @param <T>    type of the result of the chunk.
+   * @return result of the chunk.
+   */
+  private static <T> T awaitChunk(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
       }
+      throw e;
     }
   }
 
-  // Level of recursion.
-  private int level = 0;
-  // A reference to the validation error message that can be updated.
-  private final StringBuilder errorMessage;
-  // A list of string that form the path to a given field.
-  private final List<String> path;
-  // A set of validation errors collected from received object.
-  private HashSet<ValidationError> errors;
+  // Settings of this validator.
+  private final ValidatorConfig config;
+  // How the fields of validated objects are read.
+  private final AccessMode mode;
+  // Results of immutable objects, null if caching is disabled.
+  private final ResultCache resultCache;
+  // Receiver of measurements, null if nothing is measured.
+  private final ValidationListener listener;
+
+  // Stands for an element past the end of a container.
+  private static final Object ABSENT = new Object();
 
   static final String NO_CONSTRAINED_MSG = "ERROR: no @Constrained annotation on given object";
   static final String OBJ_NULL_MSG = "ERROR: cannot validate null object.";
+  static final String COLLECTION_NULL_MSG = "ERROR: cannot validate null collection.";
+  static final String NO_SUCH_PROPERTY_MSG = "ERROR: no such property to validate: ";
 
 }
@@ -12,4 +12,8 @@ import java.lang.annotation.Target;
 @Target({ElementType.TYPE_USE})
 public @interface NotBlank {
 
+  /**
+   * @return groups the constraint belongs to. A constraint without groups belongs to Default.
+   */
+  Class<?>[] groups() default {};
 }
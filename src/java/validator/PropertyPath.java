@@ -0,0 +1,381 @@
+package validator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable path to a validated value, made of field names, list indices and map keys. Each path
+ * is a segment linked to its parent, so the paths of errors found under the same object share
+ * their common part. The path is only turned into a String like "guests[3].age" when it's asked
+ * for.
+ */
+public final class PropertyPath {
+
+  private PropertyPath(PropertyPath parent, String name, int index, Object key) {
+    this.parent = parent;
+    this.name = name;
+    this.index = index;
+    this.key = key;
+    this.length = parent == null ? 0 : parent.length + 1;
+  }
+
+  /**
+   * @return empty path, pointing at the validated object itself.
+   */
+  public static PropertyPath root() {
+    return ROOT;
+  }
+
+  /**
+   * @param name name of a field of the value at this path.
+   * @return path to the field.
+   */
+  public PropertyPath field(String name) {
+    if (name == null || name.isEmpty()) {
+      throw new ValidationException(WRONG_PATH_MSG + name);
+    }
+    return new PropertyPath(this, name, -1, null);
+  }
+
+  /**
+   * @param index index of an element of the list at this path.
+   * @return path to the element.
+   */
+  public PropertyPath index(int index) {
+    if (index < 0) {
+      throw new ValidationException(WRONG_PATH_MSG + "[" + index + "]");
+    }
+    return new PropertyPath(this, null, index, null);
+  }
+
+  /**
+   * @param key key of an entry of the map at this path.
+   * @return path to the entry. Violations of the key and of the value are both reported there.
+   */
+  public PropertyPath key(Object key) {
+    if (key == null) {
+      throw new ValidationException(WRONG_PATH_MSG + "[null]");
+    }
+    return new PropertyPath(this, null, -1, key);
+  }
+
+  /**
+   * Parses a path in the format of ValidationError.getPath(): field names separated by dots, list
+   * indices and map keys in brackets, e.g. "guests[3].age". Keys are parsed as Strings, unless they
+   * consist of digits only, which makes them list indices.
+   *
+   * @param path text of the path, empty for the root.
+   * @return parsed path.
+   */
+  public static PropertyPath parse(String path) {
+    if (path == null) {
+      throw new ValidationException(WRONG_PATH_MSG + null);
+    }
+    PropertyPath result = ROOT;
+    int i = 0;
+    while (i < path.length()) {
+      char c = path.charAt(i);
+      if (c == '[') {
+        int end = path.indexOf(']', i);
+        if (end < 0) {
+          throw new ValidationException(WRONG_PATH_MSG + path);
+        }
+        result = isIndex(path, i + 1, end)
+            ? result.index(parseIndex(path, i + 1, end))
+            : result.key(path.substring(i + 1, end));
+        i = end + 1;
+      } else {
+        // A field after another segment is separated from it by a dot.
+        if (!result.isRoot()) {
+          if (c != '.') {
+            throw new ValidationException(WRONG_PATH_MSG + path);
+          }
+          ++i;
+        }
+        int end = i;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+          ++end;
+        }
+        if (end == i) {
+          throw new ValidationException(WRONG_PATH_MSG + path);
+        }
+        result = result.field(path.substring(i, end));
+        i = end;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return path without its last segment, or null if this is the root.
+   */
+  public PropertyPath getParent() {
+    return parent;
+  }
+
+  /**
+   * @return true if the path is empty.
+   */
+  public boolean isRoot() {
+    return parent == null;
+  }
+
+  /**
+   * @return true if the last segment is a list index.
+   */
+  public boolean isIndex() {
+    return parent != null && name == null && key == null;
+  }
+
+  /**
+   * @return true if the last segment is a map key.
+   */
+  public boolean isKey() {
+    return key != null;
+  }
+
+  /**
+   * @return field name of the last segment, or null if it's not a field.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return list index of the last segment, or -1 if it's not a list index.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return map key of the last segment, or null if it's not a map key.
+   */
+  public Object getKey() {
+    return key;
+  }
+
+  /**
+   * @return number of segments.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * @param prefix another path.
+   * @return true if this path is the same as given path, or leads to a value inside the value at
+   *     given path.
+   */
+  public boolean startsWith(PropertyPath prefix) {
+    PropertyPath segment = this;
+    while (segment.length > prefix.length) {
+      segment = segment.parent;
+    }
+    return segment.equals(prefix);
+  }
+
+  /**
+   * @return segments of the path from the first to the last, each being the path up to it.
+   */
+  public List<PropertyPath> getSegments() {
+    PropertyPath[] segments = new PropertyPath[length];
+    for (PropertyPath segment = this; segment.parent != null; segment = segment.parent) {
+      segments[segment.length - 1] = segment;
+    }
+    return Collections.unmodifiableList(Arrays.asList(segments));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PropertyPath)) {
+      return false;
+    }
+    PropertyPath other = (PropertyPath) o;
+    PropertyPath segment = this;
+    if (segment.length != other.length) {
+      return false;
+    }
+    // Shared parents end the comparison early.
+    while (segment != other) {
+      if (segment.index != other.index || !Objects.equals(segment.name, other.name)
+          || !Objects.equals(segment.key, other.key)) {
+        return false;
+      }
+      segment = segment.parent;
+      other = other.parent;
+    }
+    return true;
+  }
+
+  /**
+   * Compares the paths as text, without building it, so a map key "1" and a list index 1 are the
+   * same.
+   *
+   * @param other another path.
+   * @return true if both paths have the same text.
+   */
+  boolean hasSameText(PropertyPath other) {
+    PropertyPath segment = this;
+    if (segment.length != other.length) {
+      return false;
+    }
+    while (segment != other) {
+      if (segment.name != null || other.name != null
+          ? !Objects.equals(segment.name, other.name)
+          : !segment.bracketText().equals(other.bracketText())) {
+        return false;
+      }
+      segment = segment.parent;
+      other = other.parent;
+    }
+    return true;
+  }
+
+  /**
+   * @return text between the brackets of a list index or a map key.
+   */
+  private String bracketText() {
+    return key != null ? key.toString() : String.valueOf(index);
+  }
+
+  /**
+   * @return the same hash as the text of the path has, computed from the segments without
+   *     building the text.
+   */
+  @Override
+  public int hashCode() {
+    int result = hash;
+    if (result != 0 || parent == null) {
+      return result;
+    }
+    // Paths may be very deep, so the segments down from the nearest hashed one are walked in a
+    // loop rather than by recursion.
+    PropertyPath hashed = parent;
+    while (hashed.hash == 0 && hashed.parent != null) {
+      hashed = hashed.parent;
+    }
+    PropertyPath[] pending = new PropertyPath[length - hashed.length];
+    for (PropertyPath segment = this; segment != hashed; segment = segment.parent) {
+      pending[segment.length - hashed.length - 1] = segment;
+    }
+    result = hashed.hash;
+    for (PropertyPath segment : pending) {
+      result = segment.appendHash(result);
+      segment.hash = result;
+    }
+    return result;
+  }
+
+  /**
+   * @param parentHash hash of the text of the parent.
+   * @return hash of the text with the last segment appended.
+   */
+  private int appendHash(int parentHash) {
+    if (key != null) {
+      return 31 * hashChars(31 * parentHash + '[', key.toString()) + ']';
+    }
+    if (name == null) {
+      return 31 * hashDigits(31 * parentHash + '[', index) + ']';
+    }
+    return hashChars(length > 1 ? 31 * parentHash + '.' : parentHash, name);
+  }
+
+  /**
+   * @param hash  hash of the text so far, as String.hashCode() computes it.
+   * @param chars text to be appended.
+   * @return hash of the text with the characters appended.
+   */
+  private static int hashChars(int hash, String chars) {
+    for (int i = 0; i < chars.length(); ++i) {
+      hash = 31 * hash + chars.charAt(i);
+    }
+    return hash;
+  }
+
+  /**
+   * @param hash  hash of the text so far, as String.hashCode() computes it.
+   * @param value a number that is not negative.
+   * @return hash of the text with the decimal digits of the number appended.
+   */
+  private static int hashDigits(int hash, int value) {
+    if (value >= 10) {
+      hash = hashDigits(hash, value / 10);
+    }
+    return 31 * hash + ('0' + value % 10);
+  }
+
+  /**
+   * @return the path as text, e.g. "guests[3].age". Built on first call.
+   */
+  @Override
+  public String toString() {
+    String result = text;
+    if (result == null) {
+      StringBuilder builder = new StringBuilder();
+      for (PropertyPath segment : getSegments()) {
+        if (segment.key != null) {
+          builder.append('[').append(segment.key).append(']');
+        } else if (segment.name == null) {
+          builder.append('[').append(segment.index).append(']');
+        } else {
+          if (segment.length > 1) {
+            builder.append('.');
+          }
+          builder.append(segment.name);
+        }
+      }
+      result = builder.toString();
+      text = result;
+    }
+    return result;
+  }
+
+  private static boolean isIndex(String path, int from, int to) {
+    for (int i = from; i < to; ++i) {
+      if (path.charAt(i) < '0' || path.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int parseIndex(String path, int from, int to) {
+    if (from == to) {
+      throw new ValidationException(WRONG_PATH_MSG + path);
+    }
+    int result = 0;
+    for (int i = from; i < to; ++i) {
+      char digit = path.charAt(i);
+      if (digit < '0' || digit > '9' || result > (Integer.MAX_VALUE - 9) / 10) {
+        throw new ValidationException(WRONG_PATH_MSG + path);
+      }
+      result = result * 10 + (digit - '0');
+    }
+    return result;
+  }
+
+  // Path without the last segment, null for the root.
+  private final PropertyPath parent;
+  // Field name of the last segment, null for list indices.
+  private final String name;
+  // List index of the last segment, -1 for fields and map keys.
+  private final int index;
+  // Map key of the last segment, null for fields and list indices.
+  private final Object key;
+  // Number of segments.
+  private final int length;
+  // Rendered path, built on demand.
+  private String text;
+  // Hash of the rendered path, computed on demand without rendering it. 0 until then.
+  private int hash;
+
+  private static final PropertyPath ROOT = new PropertyPath(null, null, -1, null);
+
+  static final String WRONG_PATH_MSG = "ERROR: wrong property path: ";
+}
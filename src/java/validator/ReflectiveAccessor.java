@@ -0,0 +1,38 @@
+package validator;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads a field with java.lang.reflect.Field.
+ */
+final class ReflectiveAccessor implements FieldAccessor {
+
+  ReflectiveAccessor(Field field) {
+    this.field = field;
+  }
+
+  @Override
+  public Object get(Object owner) {
+    try {
+      return field.get(owner);
+    } catch (IllegalAccessException e) {
+      // Underlying field is always accessible because
+      // we made it so with field.setAccessible(true).
+      return null;
+    }
+  }
+
+  @Override
+  public long getLong(Object owner) {
+    try {
+      // Field.getLong widens byte, short and int values without boxing them.
+      return field.getLong(owner);
+    } catch (IllegalAccessException e) {
+      // Underlying field is always accessible because
+      // we made it so with field.setAccessible(true).
+      return 0;
+    }
+  }
+
+  private final Field field;
+}
@@ -0,0 +1,213 @@
+package validator;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Validation results of immutable objects, kept by the identity of the object. Objects are only
+ * weakly referenced, so caching doesn't keep them alive, and the least recently used results are
+ * dropped once the cache is full.
+ * Lookups take no lock, so a validator shared by many threads doesn't serialize them. Each result
+ * is stamped with the time of its last use, counted in additions to the cache, which makes the
+ * order of results used between two additions approximate.
+ * Results are held strongly, so a result whose failed values might reference the object would
+ * keep it alive. Only results whose failed values are plain values, such as strings and numbers,
+ * are cached; the others are validated again on every call.
+ */
+final class ResultCache {
+
+  /**
+   * @param maxEntries maximum number of results kept.
+   */
+  ResultCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    queue = new ReferenceQueue<>();
+    results = new ConcurrentHashMap<>();
+    clock = new AtomicLong();
+    evictionLock = new ReentrantLock();
+  }
+
+  /**
+   * @param object validated object.
+   * @return result of its validation, or null if it's not cached.
+   */
+  ViolationSet get(Object object) {
+    expungeCollected();
+    Entry entry = results.get(new Lookup(object));
+    if (entry == null) {
+      return null;
+    }
+    // A use is later than the addition at the same time, but not than the next one.
+    long now = clock.get() | 1;
+    if (entry.lastUsed != now) {
+      entry.lastUsed = now;
+    }
+    return entry.result;
+  }
+
+  /**
+   * @param object validated object.
+   * @param result result of its validation.
+   */
+  void put(Object object, ViolationSet result) {
+    if (!holdsPlainValues(result)) {
+      return;
+    }
+    expungeCollected();
+    results.put(new WeakKey(object, queue), new Entry(result, clock.addAndGet(2)));
+    // Threads that find the cache full while another one evicts leave it to that thread.
+    if (results.size() > maxEntries && evictionLock.tryLock()) {
+      try {
+        evict();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * @param result result of a validation.
+   * @return true if each failed value is null or a value that can't reference other objects.
+   */
+  private static boolean holdsPlainValues(ViolationSet result) {
+    for (ValidationError error : result) {
+      Object value = error.getFailedValue();
+      // Enum constants are strongly reachable from their class anyway.
+      if (value != null && !(value instanceof Enum) && !PLAIN_TYPES.contains(value.getClass())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Removes the least recently used results, a few more than needed, so that the cache is not
+   * sorted on every addition.
+   */
+  private void evict() {
+    @SuppressWarnings("unchecked")
+    Map.Entry<Object, Entry>[] entries = results.entrySet().toArray(new Map.Entry[0]);
+    int excess = entries.length - maxEntries;
+    if (excess <= 0) {
+      return;
+    }
+    int count = Math.min(entries.length, excess + maxEntries / EVICTED_SHARE);
+    Arrays.sort(entries, Comparator.comparingLong(e -> e.getValue().lastUsed));
+    for (int i = 0; i < count; ++i) {
+      results.remove(entries[i].getKey(), entries[i].getValue());
+    }
+  }
+
+  /**
+   * Removes the results of objects that were garbage collected.
+   */
+  private void expungeCollected() {
+    Reference<?> collected;
+    while ((collected = queue.poll()) != null) {
+      results.remove(collected);
+    }
+  }
+
+  /**
+   * Cached result with the time of its last use.
+   */
+  private static final class Entry {
+
+    Entry(ViolationSet result, long lastUsed) {
+      this.result = result;
+      this.lastUsed = lastUsed;
+    }
+
+    // Result of the validation.
+    private final ViolationSet result;
+    // Clock of the cache at the last use: even for the addition, odd for later lookups.
+    private volatile long lastUsed;
+  }
+
+  /**
+   * Key of a cached result, compared by the identity of the object.
+   */
+  private static final class WeakKey extends WeakReference<Object> {
+
+    WeakKey(Object object, ReferenceQueue<Object> queue) {
+      super(object, queue);
+      hash = System.identityHashCode(object);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      // A collected key is only equal to itself, so that it can still be removed.
+      if (this == o) {
+        return true;
+      }
+      Object object = get();
+      if (object == null) {
+        return false;
+      }
+      // Lookups are compared too, whichever side the map calls equals() on.
+      return o instanceof WeakKey ? ((WeakKey) o).get() == object
+          : o instanceof Lookup && ((Lookup) o).object == object;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    // Identity hash of the object, kept after the object is collected.
+    private final int hash;
+  }
+
+  /**
+   * Key used to look a result up, without creating a weak reference. Equal to the WeakKey of the
+   * same object both ways.
+   */
+  private static final class Lookup {
+
+    Lookup(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof WeakKey && ((WeakKey) o).get() == object;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(object);
+    }
+
+    // Looked up object.
+    private final Object object;
+  }
+
+  // Maximum number of results kept.
+  private final int maxEntries;
+  // Keys of collected objects are put here by the garbage collector.
+  private final ReferenceQueue<Object> queue;
+  // Results by the keys of validated objects.
+  private final ConcurrentMap<Object, Entry> results;
+  // Number of additions to the cache, times two.
+  private final AtomicLong clock;
+  // Held by the thread that removes the least recently used results.
+  private final ReentrantLock evictionLock;
+
+  // Share of the maximum number of results removed along with the excess ones, as a divisor.
+  private static final int EVICTED_SHARE = 8;
+  // Final classes whose instances reference no other objects, safe to keep as failed values.
+  private static final Set<Class<?>> PLAIN_TYPES = Set.of(String.class, Boolean.class,
+      Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class,
+      Double.class, BigInteger.class, BigDecimal.class);
+}
@@ -16,4 +16,9 @@ public @interface Size {
   int min();
 
   int max();
+
+  /**
+   * @return groups the constraint belongs to. A constraint without groups belongs to Default.
+   */
+  Class<?>[] groups() default {};
 }
@@ -0,0 +1,130 @@
+package validator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An object, an array or a map of a JSON document that StreamingValidator is reading.
+ */
+final class StreamFrame {
+
+  private StreamFrame(int kind, ValidationPlan objectPlan, ElementPlan plan, int depth) {
+    this.kind = kind;
+    this.objectPlan = objectPlan;
+    this.plan = plan;
+    this.depth = depth;
+    this.seen = objectPlan == null ? null : new boolean[objectPlan.getFields().length];
+    // Keys are only kept if the map itself has constraints.
+    this.keys = kind == ENTRIES && plan.getConstraints().length > 0 ? new LinkedHashMap<>() : null;
+  }
+
+  /**
+   * @param objectPlan plan of the declared class of the object.
+   * @param depth      number of levels in the path to the object.
+   * @return frame of an object bound to a @Constrained class.
+   */
+  static StreamFrame ofObject(ValidationPlan objectPlan, int depth) {
+    return new StreamFrame(OBJECT, objectPlan, null, depth);
+  }
+
+  /**
+   * @param plan  plan of the declared type of the array, a List, a Set or an array.
+   * @param depth number of levels in the path to the array.
+   * @return frame of an array.
+   */
+  static StreamFrame ofElements(ElementPlan plan, int depth) {
+    return new StreamFrame(ELEMENTS, null, plan, depth);
+  }
+
+  /**
+   * @param plan  plan of the declared type of the object, a Map.
+   * @param depth number of levels in the path to the object.
+   * @return frame of an object bound to a Map.
+   */
+  static StreamFrame ofEntries(ElementPlan plan, int depth) {
+    return new StreamFrame(ENTRIES, null, plan, depth);
+  }
+
+  /**
+   * @return what this frame holds: OBJECT, ELEMENTS or ENTRIES.
+   */
+  int getKind() {
+    return kind;
+  }
+
+  ValidationPlan getObjectPlan() {
+    return objectPlan;
+  }
+
+  ElementPlan getPlan() {
+    return plan;
+  }
+
+  int getDepth() {
+    return depth;
+  }
+
+  /**
+   * @param index index of a field of the object that was found in the document.
+   */
+  void markSeen(int index) {
+    seen[index] = true;
+  }
+
+  /**
+   * @param index index of a field of the object.
+   * @return true if the field was found in the document.
+   */
+  boolean isSeen(int index) {
+    return seen[index];
+  }
+
+  /**
+   * @return index of the next element of the array.
+   */
+  int nextIndex() {
+    return count++;
+  }
+
+  /**
+   * @return number of elements read.
+   */
+  int getCount() {
+    return count;
+  }
+
+  /**
+   * @param key key of the next entry of the map.
+   */
+  void addKey(String key) {
+    if (keys != null) {
+      keys.put(key, null);
+    }
+  }
+
+  /**
+   * @return keys of the map mapped to null, or null if the map has no constraints.
+   */
+  Map<String, Object> getKeys() {
+    return keys;
+  }
+
+  // What this frame holds.
+  private final int kind;
+  // Plan of the object, null for other frames.
+  private final ValidationPlan objectPlan;
+  // Plan of the array or the map, null for object frames.
+  private final ElementPlan plan;
+  // Number of levels in the path to the object, the array or the map.
+  private final int depth;
+  // Fields of the object found in the document, null for other frames.
+  private final boolean[] seen;
+  // Keys of the map, only kept for the constraints of the map.
+  private final Map<String, Object> keys;
+  // Number of array elements read.
+  private int count;
+
+  static final int OBJECT = 0;
+  static final int ELEMENTS = 1;
+  static final int ENTRIES = 2;
+}
@@ -0,0 +1,465 @@
+package validator;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Validates JSON documents against the constraints of @Constrained classes without binding them
+ * to objects. The document is read one token at a time from a TokenSource, and each value is
+ * checked as soon as it's read, with the same annotations, messages and paths as MyValidator uses
+ * for the bound object. Reading stops once validation is over, so in fail-fast mode or with a
+ * limit of violations the rest of an invalid document is never parsed.
+ * Values are bound to the declared types of fields: nested objects are checked as their declared
+ * class, fields missing from the document are checked as null, or 0 for primitives, and members
+ * that are not fields of the class are skipped. A value that can't be bound to the declared type
+ * is reported as a violation.
+ */
+public class StreamingValidator {
+
+  /**
+   * Creates a validator with default settings. The validator holds no per-call state, so a single
+   * instance can be shared between threads.
+   */
+  public StreamingValidator() {
+    this(ValidatorConfig.defaults());
+  }
+
+  /**
+   * Creates a validator. Fail-fast mode, the limit of violations and the maximum depth are taken
+   * from the settings, the other settings don't apply to streaming.
+   *
+   * @param config settings of the validator.
+   */
+  public StreamingValidator(ValidatorConfig config) {
+    if (config == null) {
+      throw new ValidationException(ValidatorConfig.NULL_SETTING_MSG);
+    }
+    this.config = config;
+  }
+
+  /**
+   * Looks for errors in a JSON object as if it was bound to given class.
+   *
+   * @param type   @Constrained class of the object.
+   * @param source tokens of the document, positioned before the object.
+   * @return set of discovered validation errors, limited according to the settings.
+   */
+  public ViolationSet validate(Class<?> type, TokenSource source) {
+    return validate(type, source, config.isFailFast());
+  }
+
+  /**
+   * Checks if a JSON object has no validation errors. Stops reading at the first error regardless
+   * of the settings.
+   *
+   * @param type   @Constrained class of the object.
+   * @param source tokens of the document, positioned before the object.
+   * @return true if no validation errors were found.
+   */
+  public boolean isValid(Class<?> type, TokenSource source) {
+    return validate(type, source, true).isEmpty();
+  }
+
+  private ViolationSet validate(Class<?> type, TokenSource source, boolean failFast) {
+    if (type == null || source == null) {
+      throw new ValidationException(NULL_ARGUMENT_MSG);
+    }
+    // Generated plans don't know the declared types of elements, which binding needs.
+    ValidationPlan plan = ValidationPlan.declared(type);
+    if (!plan.isConstrained()) {
+      throw new ValidationException(MyValidator.NO_CONSTRAINED_MSG);
+    }
+    if (source.next() != JsonToken.START_OBJECT) {
+      throw new ValidationException(NOT_OBJECT_MSG);
+    }
+    long startTime = config.isListening() ? System.nanoTime() : 0;
+    ValidationContext context = new ValidationContext(config, failFast);
+    Deque<StreamFrame> stack = new ArrayDeque<>();
+    context.countObject();
+    stack.push(StreamFrame.ofObject(plan, 0));
+    traverse(source, stack, context);
+    context.report(type, startTime);
+    return context.getErrors();
+  }
+
+  /**
+   * Reads tokens until the document is over or nothing else needs to be checked. Each token is
+   * read in the frame of the object, the array or the map it belongs to.
+   *
+   * @param source  tokens of the document.
+   * @param stack   open objects, arrays and maps, the innermost on top.
+   * @param context state of current validation.
+   */
+  private void traverse(TokenSource source, Deque<StreamFrame> stack,
+      ValidationContext context) {
+    StreamFrame frame;
+    while ((frame = stack.peek()) != null && !context.isDone()) {
+      context.setDepth(frame.getDepth());
+      JsonToken token = source.next();
+      if (frame.getKind() == StreamFrame.OBJECT) {
+        stepObject(frame, token, source, stack, context);
+      } else if (frame.getKind() == StreamFrame.ELEMENTS) {
+        stepElements(frame, token, source, stack, context);
+      } else {
+        stepEntries(frame, token, source, stack, context);
+      }
+    }
+  }
+
+  /**
+   * Reads the next member of an object bound to a @Constrained class.
+   *
+   * @param frame   frame of the object.
+   * @param token   the token after the previous member.
+   * @param source  tokens of the document.
+   * @param stack   open objects, arrays and maps.
+   * @param context state of current validation, points at the object.
+   */
+  private void stepObject(StreamFrame frame, JsonToken token, TokenSource source,
+      Deque<StreamFrame> stack, ValidationContext context) {
+    if (token == JsonToken.END_OBJECT) {
+      stack.pop();
+      checkMissingFields(frame, context);
+      return;
+    }
+    String name = readName(token, source);
+    int index = frame.getObjectPlan().indexOf(name);
+    JsonToken valueToken = source.next();
+    if (index < 0) {
+      // Members that are not fields of the class are not bound, so there is nothing to check.
+      skipValue(valueToken, source);
+      return;
+    }
+    frame.markSeen(index);
+    context.countField();
+    context.enterField(name);
+    readValue(frame.getObjectPlan().getFields()[index].getElements(), valueToken, source, stack,
+        context);
+  }
+
+  /**
+   * Reads the next element of an array.
+   *
+   * @param frame   frame of the array.
+   * @param token   the token after the previous element.
+   * @param source  tokens of the document.
+   * @param stack   open objects, arrays and maps.
+   * @param context state of current validation, points at the array.
+   */
+  private void stepElements(StreamFrame frame, JsonToken token, TokenSource source,
+      Deque<StreamFrame> stack, ValidationContext context) {
+    if (token == JsonToken.END_ARRAY) {
+      stack.pop();
+      // Constraints of a container only need the number of its elements, the elements are gone.
+      ElementPlan plan = frame.getPlan();
+      Object container = plan.getType().isArray()
+          ? NO_ELEMENTS
+          : Collections.nCopies(frame.getCount(), null);
+      MyValidator.checkConstraints(plan.getConstraints(), container, plan.getTypeName(), context);
+      return;
+    }
+    context.enterIndex(frame.nextIndex());
+    readValue(frame.getPlan().getElements(), token, source, stack, context);
+  }
+
+  /**
+   * Reads the next entry of an object bound to a Map. The key and the value are both checked at
+   * the path of the entry.
+   *
+   * @param frame   frame of the map.
+   * @param token   the token after the previous entry.
+   * @param source  tokens of the document.
+   * @param stack   open objects, arrays and maps.
+   * @param context state of current validation, points at the map.
+   */
+  private void stepEntries(StreamFrame frame, JsonToken token, TokenSource source,
+      Deque<StreamFrame> stack, ValidationContext context) {
+    ElementPlan plan = frame.getPlan();
+    if (token == JsonToken.END_OBJECT) {
+      stack.pop();
+      if (frame.getKeys() != null) {
+        MyValidator.checkConstraints(plan.getConstraints(), frame.getKeys(), plan.getTypeName(),
+            context);
+      }
+      return;
+    }
+    String key = readName(token, source);
+    frame.addKey(key);
+    context.enterKey(key);
+    ElementPlan keys = plan.getElements();
+    if (keys.getConstraints().length > 0) {
+      // Keys of whole number types are written as strings.
+      Object value = isWholeNumber(keys.getType()) ? number(keys.getType(), key) : key;
+      if (value == null) {
+        addTypeMismatch(key, keys.getType(), context);
+      } else {
+        MyValidator.checkConstraints(keys.getConstraints(), value, keys.getTypeName(), context);
+      }
+      if (context.isDone()) {
+        return;
+      }
+    }
+    readValue(plan.getValues(), source.next(), source, stack, context);
+  }
+
+  /**
+   * Binds a value to its declared type and checks it. Objects and arrays are pushed onto the
+   * stack, to be read token by token.
+   *
+   * @param plan    plan of the declared type of the value.
+   * @param token   first token of the value.
+   * @param source  tokens of the document.
+   * @param stack   open objects, arrays and maps.
+   * @param context state of current validation, points at the value.
+   */
+  private void readValue(ElementPlan plan, JsonToken token, TokenSource source,
+      Deque<StreamFrame> stack, ValidationContext context) {
+    Class<?> type = plan.getType();
+    Constraint[] constraints = plan.getConstraints();
+    if (type == Optional.class) {
+      // An Optional is bound to its contents, which are checked at the same path.
+      MyValidator.checkConstraints(constraints, Optional.empty(), plan.getTypeName(), context);
+      if (token != JsonToken.NULL && !context.isDone()) {
+        readValue(plan.getElements(), token, source, stack, context);
+      }
+      return;
+    }
+    switch (token) {
+      case NULL:
+        MyValidator.checkConstraints(constraints, defaultValue(type), plan.getTypeName(), context);
+        break;
+      case TRUE:
+      case FALSE:
+        Boolean flag = token == JsonToken.TRUE;
+        if (type == boolean.class || type.isAssignableFrom(Boolean.class)) {
+          MyValidator.checkConstraints(constraints, flag, plan.getTypeName(), context);
+        } else {
+          addTypeMismatch(flag, type, context);
+        }
+        break;
+      case STRING:
+        String text = source.getText();
+        if (type.isAssignableFrom(String.class) || type.isEnum()) {
+          MyValidator.checkConstraints(constraints, text, plan.getTypeName(), context);
+        } else {
+          addTypeMismatch(text, type, context);
+        }
+        break;
+      case NUMBER:
+        Object number = number(type, source.getText());
+        if (number != null) {
+          MyValidator.checkConstraints(constraints, number, plan.getTypeName(), context);
+        } else {
+          addTypeMismatch(source.getText(), type, context);
+        }
+        break;
+      case START_ARRAY:
+        if (type.isArray() || type.isAssignableFrom(Collection.class)
+            || Collection.class.isAssignableFrom(type)) {
+          context.checkDepth();
+          stack.push(StreamFrame.ofElements(plan, context.getDepth()));
+        } else {
+          addTypeMismatch(null, type, context);
+          skipValue(token, source);
+        }
+        break;
+      case START_OBJECT:
+        readObject(plan, source, stack, context);
+        break;
+      default:
+        throw new ValidationException(UNEXPECTED_TOKEN_MSG + token);
+    }
+  }
+
+  /**
+   * Binds an object to a Map or to a class, depending on the declared type.
+   *
+   * @param plan    plan of the declared type of the object.
+   * @param source  tokens of the document, positioned after the start of the object.
+   * @param stack   open objects, arrays and maps.
+   * @param context state of current validation, points at the object.
+   */
+  private void readObject(ElementPlan plan, TokenSource source, Deque<StreamFrame> stack,
+      ValidationContext context) {
+    Class<?> type = plan.getType();
+    if (type.isAssignableFrom(Map.class) || Map.class.isAssignableFrom(type)) {
+      context.checkDepth();
+      stack.push(StreamFrame.ofEntries(plan, context.getDepth()));
+      return;
+    }
+    if (!isBean(type)) {
+      addTypeMismatch(null, type, context);
+      skipValue(JsonToken.START_OBJECT, source);
+      return;
+    }
+    // The object is there, its own constraints don't need anything else.
+    MyValidator.checkConstraints(plan.getConstraints(), PRESENT, plan.getTypeName(), context);
+    ValidationPlan objectPlan = ValidationPlan.declared(type);
+    if (objectPlan.isConstrained() && !context.isDone()) {
+      context.checkDepth();
+      context.countObject();
+      stack.push(StreamFrame.ofObject(objectPlan, context.getDepth()));
+    } else {
+      skipValue(JsonToken.START_OBJECT, source);
+    }
+  }
+
+  /**
+   * Checks the fields of an object that were missing from the document with their default values.
+   *
+   * @param frame   frame of the object.
+   * @param context state of current validation, points at the object.
+   */
+  private void checkMissingFields(StreamFrame frame, ValidationContext context) {
+    FieldPlan[] fields = frame.getObjectPlan().getFields();
+    for (int i = 0; i < fields.length && !context.isDone(); ++i) {
+      if (!frame.isSeen(i) && fields[i].getConstraints().length > 0) {
+        context.countField();
+        context.enterField(fields[i].getName());
+        MyValidator.checkConstraints(fields[i].getConstraints(), defaultValue(fields[i].getType()),
+            fields[i].getTypeName(), context);
+        context.exit();
+      }
+    }
+  }
+
+  /**
+   * Skips a value that doesn't need to be checked, with everything inside it.
+   *
+   * @param token  first token of the value.
+   * @param source tokens of the document.
+   */
+  private static void skipValue(JsonToken token, TokenSource source) {
+    if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+      if (!isScalar(token)) {
+        throw new ValidationException(UNEXPECTED_TOKEN_MSG + token);
+      }
+      return;
+    }
+    int level = 1;
+    while (level > 0) {
+      JsonToken next = source.next();
+      if (next == JsonToken.START_OBJECT || next == JsonToken.START_ARRAY) {
+        ++level;
+      } else if (next == JsonToken.END_OBJECT || next == JsonToken.END_ARRAY) {
+        --level;
+      } else if (next == JsonToken.END_DOCUMENT) {
+        throw new ValidationException(UNEXPECTED_TOKEN_MSG + next);
+      }
+    }
+  }
+
+  private static String readName(JsonToken token, TokenSource source) {
+    if (token != JsonToken.FIELD_NAME) {
+      throw new ValidationException(UNEXPECTED_TOKEN_MSG + token);
+    }
+    return source.getText();
+  }
+
+  /**
+   * Binds a number to given type.
+   *
+   * @param type declared type of the value.
+   * @param text the number as it's written in the document.
+   * @return value of the declared type, or null if the number can't be bound to it.
+   */
+  private static Object number(Class<?> type, String text) {
+    if (type == byte.class || type == Byte.class) {
+      Long value = wholeNumber(text, Byte.MIN_VALUE, Byte.MAX_VALUE);
+      return value == null ? null : Byte.valueOf(value.byteValue());
+    }
+    if (type == short.class || type == Short.class) {
+      Long value = wholeNumber(text, Short.MIN_VALUE, Short.MAX_VALUE);
+      return value == null ? null : Short.valueOf(value.shortValue());
+    }
+    if (type == int.class || type == Integer.class) {
+      Long value = wholeNumber(text, Integer.MIN_VALUE, Integer.MAX_VALUE);
+      return value == null ? null : Integer.valueOf(value.intValue());
+    }
+    if (type == long.class || type == Long.class) {
+      return wholeNumber(text, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    try {
+      if (type.isAssignableFrom(Long.class)) {
+        // Number, Object and the like get the closest of Long and Double.
+        Long value = wholeNumber(text, Long.MIN_VALUE, Long.MAX_VALUE);
+        return value != null ? value : (Object) Double.valueOf(text);
+      }
+      if (type == float.class || type == double.class || Number.class.isAssignableFrom(type)) {
+        // Constraints don't apply to fractional numbers, so the exact type doesn't matter.
+        return Double.valueOf(text);
+      }
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    return null;
+  }
+
+  private static Long wholeNumber(String text, long min, long max) {
+    try {
+      long value = Long.parseLong(text);
+      return value >= min && value <= max ? value : null;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @param type declared type of a value.
+   * @return value of a field of given type that is missing from the document.
+   */
+  private static Object defaultValue(Class<?> type) {
+    // Zero of a primitive type, boxed.
+    return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+  }
+
+  /**
+   * Adds an error for a value that can't be bound to its declared type. No constraint annotation
+   * describes it, so the listener gets it as a violation of @Constrained.
+   *
+   * @param value   the value, or null if it's an object or an array.
+   * @param type    declared type of the value.
+   * @param context state of current validation, points at the value.
+   */
+  private static void addTypeMismatch(Object value, Class<?> type, ValidationContext context) {
+    context.addError(value, TYPE_MISMATCH_MESSAGE + type.getTypeName(), Constrained.class);
+  }
+
+  private static boolean isWholeNumber(Class<?> type) {
+    return FieldPlan.isWholeNumber(type) || type == Byte.class || type == Short.class
+        || type == Integer.class || type == Long.class;
+  }
+
+  /**
+   * @param type declared type of a value.
+   * @return true if a JSON object can be bound to the type with its fields.
+   */
+  private static boolean isBean(Class<?> type) {
+    return !type.isPrimitive() && !type.isArray() && !type.isEnum()
+        && !Collection.class.isAssignableFrom(type) && type != String.class
+        && type != Boolean.class && type != Character.class && !Number.class.isAssignableFrom(type);
+  }
+
+  private static boolean isScalar(JsonToken token) {
+    return token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.TRUE
+        || token == JsonToken.FALSE || token == JsonToken.NULL;
+  }
+
+  // Settings of this validator.
+  private final ValidatorConfig config;
+
+  // Stands for an array whose elements were already checked.
+  private static final Object[] NO_ELEMENTS = new Object[0];
+  // Stands for an object whose fields are checked separately.
+  private static final Object PRESENT = new Object();
+
+  static final String NULL_ARGUMENT_MSG = "ERROR: cannot validate null class or token source.";
+  static final String NOT_OBJECT_MSG = "ERROR: JSON document must start with an object.";
+  static final String UNEXPECTED_TOKEN_MSG = "ERROR: unexpected JSON token ";
+  static final String TYPE_MISMATCH_MESSAGE = "Must be of type ";
+}
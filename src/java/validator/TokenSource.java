@@ -0,0 +1,23 @@
+package validator;
+
+/**
+ * Pull parser of a JSON document, read by StreamingValidator one token at a time. JsonTokenizer is
+ * the bundled implementation, other parsers can be plugged in by implementing this interface.
+ */
+public interface TokenSource {
+
+  /**
+   * Reads the next token of the document.
+   *
+   * @return the token, or END_DOCUMENT once the document is over.
+   * @throws ValidationException if the document is not well-formed.
+   */
+  JsonToken next();
+
+  /**
+   * @return text of the current token: the name of a FIELD_NAME or the contents of a STRING,
+   *     without quotes and escapes, or a NUMBER as it's written in the document. Undefined for
+   *     other tokens.
+   */
+  String getText();
+}
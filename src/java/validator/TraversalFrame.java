@@ -0,0 +1,169 @@
+package validator;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An object, elements of a container or entries of a map waiting on the traversal stack of a
+ * ValidationContext.
+ * Frames are reused by the context, so entering a nested object or list doesn't allocate anything
+ * once the stack has grown deep enough.
+ */
+final class TraversalFrame {
+
+  /**
+   * Turns this frame into the frame of an object of a @Constrained class.
+   *
+   * @param plan   validation plan of object's class.
+   * @param object object to be inspected.
+   * @param depth  number of levels in the path to the object.
+   */
+  void ofObject(ValidationPlan plan, Object object, int depth) {
+    this.plan = plan;
+    this.object = object;
+    this.depth = depth;
+    cursor = 0;
+    kind = OBJECT;
+    elements = null;
+    iterator = null;
+  }
+
+  /**
+   * Turns this frame into the frame of the elements of a List, a Set or an array.
+   *
+   * @param elements     plan of the elements.
+   * @param iterator     iterator over the elements to be validated.
+   * @param firstIndex   index of the first element returned by the iterator.
+   * @param listTypeName name of the type of the elements, or null if it's to be taken from the
+   *                     first element that is not null.
+   * @param depth        number of levels in the path to the container.
+   */
+  void ofElements(ElementPlan elements, Iterator<?> iterator, int firstIndex, String listTypeName,
+      int depth) {
+    this.elements = elements;
+    this.iterator = iterator;
+    this.listTypeName = listTypeName;
+    this.depth = depth;
+    cursor = firstIndex;
+    kind = ELEMENTS;
+    plan = null;
+    object = null;
+  }
+
+  /**
+   * Turns this frame into the frame of the entries of a map.
+   *
+   * @param mapPlan  plan of the map type, with the plans of its keys and values.
+   * @param iterator iterator over the entries to be validated.
+   * @param depth    number of levels in the path to the map.
+   */
+  void ofEntries(ElementPlan mapPlan, Iterator<? extends Map.Entry<?, ?>> iterator, int depth) {
+    this.elements = mapPlan;
+    this.iterator = iterator;
+    this.depth = depth;
+    listTypeName = null;
+    valueTypeName = null;
+    kind = ENTRIES;
+    plan = null;
+    object = null;
+  }
+
+  /**
+   * Drops the references to validated values, so that a reused frame doesn't keep them alive.
+   */
+  void clear() {
+    plan = null;
+    object = null;
+    elements = null;
+    iterator = null;
+    listTypeName = null;
+    valueTypeName = null;
+  }
+
+  /**
+   * @return what this frame holds: OBJECT, ELEMENTS or ENTRIES.
+   */
+  int getKind() {
+    return kind;
+  }
+
+  ValidationPlan getPlan() {
+    return plan;
+  }
+
+  Object getObject() {
+    return object;
+  }
+
+  ElementPlan getElements() {
+    return elements;
+  }
+
+  Iterator<?> getIterator() {
+    return iterator;
+  }
+
+  String getListTypeName() {
+    return listTypeName;
+  }
+
+  /**
+   * Sets the type of the elements or map keys, once the first one that is not null is found.
+   *
+   * @param listTypeName name of the type of the elements.
+   */
+  void setListTypeName(String listTypeName) {
+    this.listTypeName = listTypeName;
+  }
+
+  String getValueTypeName() {
+    return valueTypeName;
+  }
+
+  /**
+   * Sets the type of map values, once the first one that is not null is found.
+   *
+   * @param valueTypeName name of the type of map values.
+   */
+  void setValueTypeName(String valueTypeName) {
+    this.valueTypeName = valueTypeName;
+  }
+
+  int getDepth() {
+    return depth;
+  }
+
+  /**
+   * @return index of the next field of the object, or of the next element.
+   */
+  int getCursor() {
+    return cursor;
+  }
+
+  void setCursor(int cursor) {
+    this.cursor = cursor;
+  }
+
+  // What this frame holds.
+  private int kind;
+  // Plan of the object, null for other frames.
+  private ValidationPlan plan;
+  // The object whose fields are checked.
+  private Object object;
+  // Plan of the elements, or of the map type for entry frames. Null for object frames.
+  private ElementPlan elements;
+  // Iterator over the elements or entries that are not checked yet.
+  private Iterator<?> iterator;
+  // Name of the type of the elements or map keys, null until one that is not null is found.
+  private String listTypeName;
+  // Name of the type of map values, null until one that is not null is found.
+  private String valueTypeName;
+  // Number of levels in the path to the object or the list.
+  private int depth;
+  // Index of the next field or element.
+  private int cursor;
+
+  static final int OBJECT = 0;
+  static final int ELEMENTS = 1;
+  static final int ENTRIES = 2;
+}
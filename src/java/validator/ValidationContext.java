@@ -0,0 +1,597 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of a single validate() call. Lives only for the duration of the call, which lets one
+ * validator instance be shared between threads.
+ */
+final class ValidationContext {
+
+  /**
+   * @param config   settings of the validator.
+   * @param failFast whether the validation stops at the first error.
+   */
+  ValidationContext(ValidatorConfig config, boolean failFast) {
+    this(config, failFast, Groups.DEFAULT);
+  }
+
+  /**
+   * @param config   settings of the validator.
+   * @param failFast whether the validation stops at the first error.
+   * @param groups   groups of constraints selected for validation.
+   */
+  ValidationContext(ValidatorConfig config, boolean failFast, Groups groups) {
+    this.failFast = failFast;
+    this.groups = groups;
+    // Fail-fast validation never collects more than one error.
+    this.maxViolations = failFast ? 1 : config.getMaxViolations();
+    this.countingAll = config.isCountingBeyondLimit();
+    this.parallelThreshold = config.getParallelThreshold();
+    this.executor = config.getExecutor();
+    this.maxDepth = config.getMaxDepth();
+    this.listener = config.isListening() ? config.getListener() : null;
+    parent = null;
+    chunk = 0;
+    firstDoneChunk = null;
+    errors = NO_ERRORS;
+    names = new String[INITIAL_DEPTH];
+    indices = new int[INITIAL_DEPTH];
+    keys = new Object[INITIAL_DEPTH];
+    paths = new PropertyPath[INITIAL_DEPTH];
+    frames = new TraversalFrame[INITIAL_DEPTH];
+  }
+
+  private ValidationContext(ValidationContext parent, int chunk, AtomicInteger firstDoneChunk) {
+    failFast = parent.failFast;
+    groups = parent.groups;
+    maxViolations = parent.maxViolations;
+    countingAll = parent.countingAll;
+    // Lists inside a chunk are validated sequentially, so that chunks never wait for each other.
+    parallelThreshold = Integer.MAX_VALUE;
+    executor = parent.executor;
+    maxDepth = parent.maxDepth;
+    listener = parent.listener;
+    this.parent = parent;
+    this.chunk = chunk;
+    this.firstDoneChunk = firstDoneChunk;
+    errors = NO_ERRORS;
+    names = Arrays.copyOf(parent.names, parent.names.length);
+    indices = Arrays.copyOf(parent.indices, parent.indices.length);
+    keys = Arrays.copyOf(parent.keys, parent.keys.length);
+    depth = parent.depth;
+    // Path segments are immutable, so errors of all chunks share the path to the list.
+    paths = Arrays.copyOf(parent.paths, parent.paths.length);
+    pathCount = Math.min(parent.pathCount, depth);
+    frames = new TraversalFrame[INITIAL_DEPTH];
+    owners = NO_OWNERS;
+    ownerCounts = new IdentityHashMap<>();
+  }
+
+  /**
+   * Creates a context for a chunk of a list validated on another thread. It starts at current
+   * path, but collects its own errors and remembers the objects it checks on its own. Objects
+   * checked before the fork, such as the owners of the list, are looked up in this context, which
+   * must not change until all the forks are joined.
+   *
+   * @return new context, to be merged back with join().
+   */
+  ValidationContext fork() {
+    return new ValidationContext(this, 0, null);
+  }
+
+  /**
+   * Creates a context for a chunk of a container, like fork(). Once a chunk is done, the chunks
+   * after it stop as well, since a sequential validation would never have reached them.
+   *
+   * @param chunk          index of the chunk in the container.
+   * @param firstDoneChunk index of the first chunk that is done, shared by all chunks of the
+   *                       container. Their number if none is done yet.
+   * @return new context, to be merged back with join().
+   */
+  ValidationContext fork(int chunk, AtomicInteger firstDoneChunk) {
+    return new ValidationContext(this, chunk, firstDoneChunk);
+  }
+
+  /**
+   * Adds errors found by a forked context. Forks must be joined in the order of their chunks, once
+   * all of them are done, so that the result doesn't depend on which thread finished first. An
+   * object checked by an earlier chunk as well keeps only the errors found there, as if the chunks
+   * were validated sequentially.
+   *
+   * @param fork context created by fork().
+   */
+  void join(ValidationContext fork) {
+    Set<Object> repeated = null;
+    for (Object object : fork.visited != null ? fork.visited : fork.rootAsSet()) {
+      if (!markVisited(object)) {
+        if (repeated == null) {
+          repeated = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+        repeated.add(object);
+        totalCount -= fork.ownerCounts.getOrDefault(object, NO_COUNT)[0];
+      }
+    }
+    for (int i = 0; i < fork.errorCount && errorCount < maxViolations; ++i) {
+      if (repeated == null || !repeated.contains(fork.owners[i])) {
+        collect(fork.errors[i]);
+      }
+    }
+    totalCount += fork.totalCount;
+    objectCount += fork.objectCount;
+    fieldCount += fork.fieldCount;
+  }
+
+  /**
+   * @return set of the only object checked so far, or an empty set.
+   */
+  private Set<Object> rootAsSet() {
+    return root == null ? Collections.emptySet() : Collections.singleton(root);
+  }
+
+  /**
+   * @param size number of list elements.
+   * @return true if the list is long enough to be split into chunks.
+   */
+  boolean isParallel(int size) {
+    return size > parallelThreshold;
+  }
+
+  /**
+   * Returns the plan of a class for the selected groups. Each class is resolved once per
+   * validation, so nested objects of the same class don't look their plan up again.
+   *
+   * @param plan plan of a class for Default.
+   * @return plan of the same class for the selected groups.
+   */
+  ValidationPlan forGroups(ValidationPlan plan) {
+    if (groups == Groups.DEFAULT) {
+      return plan;
+    }
+    if (groupPlans == null) {
+      groupPlans = new IdentityHashMap<>();
+    }
+    ValidationPlan result = groupPlans.get(plan);
+    if (result == null) {
+      result = plan.forGroups(groups);
+      groupPlans.put(plan, result);
+    }
+    return result;
+  }
+
+  /**
+   * @return maximum number of list elements validated by a single thread.
+   */
+  int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * @return executor running the chunks of large lists.
+   */
+  Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Adds a validation error for the value at current path. The path is only turned into a String
+   * here, so checking valid values doesn't build any Strings.
+   *
+   * @param failedValue value that failed validation.
+   * @param message     validation error message.
+   */
+  private void addError(Object failedValue, String message) {
+    ++totalCount;
+    if (firstDoneChunk != null && isDone()) {
+      firstDoneChunk.accumulateAndGet(chunk, Math::min);
+    }
+    // A fork remembers where its errors were found, in case another chunk checks the same object.
+    Object owner = parent != null ? currentObject() : null;
+    if (owner != null) {
+      ++ownerCounts.computeIfAbsent(owner, key -> new int[1])[0];
+    }
+    // Errors over the limit are only counted, nothing is allocated for them.
+    if (totalCount <= maxViolations) {
+      collect(ErrorCreator.createError(failedValue, message, currentPath()));
+      if (parent != null) {
+        if (owners.length < errors.length) {
+          owners = Arrays.copyOf(owners, errors.length);
+        }
+        owners[errorCount - 1] = owner;
+      }
+    }
+  }
+
+  /**
+   * @return the innermost @Constrained object on the traversal stack, or null if there is none.
+   */
+  private Object currentObject() {
+    for (int i = frameCount - 1; i >= 0; --i) {
+      if (frames[i].getKind() == TraversalFrame.OBJECT) {
+        return frames[i].getObject();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Appends an error to the buffer of collected errors.
+   *
+   * @param error the error.
+   */
+  private void collect(ValidationError error) {
+    if (errorCount == errors.length) {
+      errors = Arrays.copyOf(errors, Math.max(INITIAL_ERRORS, errorCount * 2));
+    }
+    errors[errorCount++] = error;
+  }
+
+  /**
+   * Adds a validation error of a constraint for the value at current path.
+   *
+   * @param failedValue value that failed validation.
+   * @param constraint  the violated constraint.
+   */
+  void addError(Object failedValue, Constraint constraint) {
+    addError(failedValue, constraint.getMessage(), constraint.getAnnotationType());
+  }
+
+  /**
+   * Adds a validation error for the value at current path and reports the violation to the
+   * listener.
+   *
+   * @param failedValue    value that failed validation.
+   * @param message        validation error message.
+   * @param annotationType type of the violated annotation.
+   */
+  void addError(Object failedValue, String message, Class<? extends Annotation> annotationType) {
+    if (listener != null) {
+      listener.onViolation(annotationType);
+    }
+    addError(failedValue, message);
+  }
+
+  /**
+   * @return true if nothing else needs to be checked: either validation stops at the first error
+   *     and an error was already found, or the limit was exceeded and errors are not counted.
+   */
+  boolean isDone() {
+    if (failFast) {
+      return totalCount > 0;
+    }
+    return !countingAll && totalCount > maxViolations;
+  }
+
+  /**
+   * @return true if nothing else needs to be checked by this context: either it's done, or it
+   *     validates a chunk after one that is done.
+   */
+  boolean isStopped() {
+    return isDone() || firstDoneChunk != null && firstDoneChunk.get() < chunk;
+  }
+
+  /**
+   * Counts a @Constrained object whose fields are about to be checked.
+   */
+  void countObject() {
+    ++objectCount;
+  }
+
+  /**
+   * Counts a field about to be checked.
+   */
+  void countField() {
+    ++fieldCount;
+  }
+
+  /**
+   * @return receiver of measurements, or null if nothing is measured.
+   */
+  ValidationListener getListener() {
+    return listener;
+  }
+
+  /**
+   * Reports the validation of an object to the listener, if there is one.
+   *
+   * @param type      class of the validated object.
+   * @param startTime System.nanoTime() when the validation started.
+   */
+  void report(Class<?> type, long startTime) {
+    if (listener != null) {
+      listener.onValidation(type, System.nanoTime() - startTime, objectCount, fieldCount,
+          totalCount);
+    }
+  }
+
+  /**
+   * Goes one level deeper into the object graph, to a field of current object.
+   *
+   * @param fieldName name of the field.
+   */
+  void enterField(String fieldName) {
+    ensureCapacity();
+    names[depth] = fieldName;
+    ++depth;
+    forgetPaths();
+  }
+
+  /**
+   * Goes one level deeper into the object graph, to an element of current list.
+   *
+   * @param index index of the element.
+   */
+  void enterIndex(int index) {
+    ensureCapacity();
+    names[depth] = null;
+    keys[depth] = null;
+    indices[depth] = index;
+    ++depth;
+    forgetPaths();
+  }
+
+  /**
+   * Goes one level deeper into the object graph, to an entry of current map.
+   *
+   * @param key key of the entry.
+   */
+  void enterKey(Object key) {
+    ensureCapacity();
+    names[depth] = null;
+    // Maps that allow a null key have it reported as "null".
+    keys[depth] = key == null ? "null" : key;
+    ++depth;
+    forgetPaths();
+  }
+
+  /**
+   * Returns to the previous level of the object graph.
+   */
+  void exit() {
+    --depth;
+  }
+
+  /**
+   * Returns to the level of the object graph where a frame was pushed. Levels below it are kept
+   * intact by the frames above it, so only the number of levels changes.
+   *
+   * @param depth number of levels in the path.
+   */
+  void setDepth(int depth) {
+    this.depth = depth;
+  }
+
+  int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Pushes a frame for the value at current path onto the traversal stack.
+   *
+   * @return frame to be filled by the caller.
+   */
+  TraversalFrame pushFrame() {
+    checkDepth();
+    if (frameCount == frames.length) {
+      frames = Arrays.copyOf(frames, frameCount * 2);
+    }
+    if (frames[frameCount] == null) {
+      frames[frameCount] = new TraversalFrame();
+    }
+    return frames[frameCount++];
+  }
+
+  /**
+   * Makes sure that the value at current path is not nested too deep to be inspected.
+   *
+   * @throws ValidationException if current path is longer than the maximum depth.
+   */
+  void checkDepth() {
+    if (depth > maxDepth) {
+      throw new ValidationException(MAX_DEPTH_MSG + maxDepth);
+    }
+  }
+
+  /**
+   * @return frame at the top of the traversal stack, or null if the stack is empty.
+   */
+  TraversalFrame peekFrame() {
+    return frameCount == 0 ? null : frames[frameCount - 1];
+  }
+
+  /**
+   * Removes the frame at the top of the traversal stack.
+   */
+  void popFrame() {
+    frames[--frameCount].clear();
+  }
+
+  /**
+   * Removes all frames from the traversal stack, when validation stops before they are done.
+   */
+  void clearFrames() {
+    while (frameCount > 0) {
+      popFrame();
+    }
+  }
+
+  /**
+   * Remembers an object of a @Constrained class before checking its fields. Objects are compared by
+   * identity, so equal objects are still checked separately.
+   *
+   * @param object object about to be checked.
+   * @return true if the object wasn't checked during this validation yet.
+   */
+  boolean markVisited(Object object) {
+    if (parent != null && parent.isVisited(object)) {
+      return false;
+    }
+    // Most objects have no nested @Constrained objects, so the set is created on demand.
+    if (visited == null || visited.isEmpty()) {
+      if (root == null) {
+        root = object;
+        return true;
+      }
+      if (root == object) {
+        return false;
+      }
+      if (visited == null) {
+        visited = Collections.newSetFromMap(new IdentityHashMap<>());
+      }
+      visited.add(root);
+    }
+    return visited.add(object);
+  }
+
+  /**
+   * @param object an object.
+   * @return true if the object was checked during this validation.
+   */
+  private boolean isVisited(Object object) {
+    return object == root || visited != null && visited.contains(object);
+  }
+
+  /**
+   * Prepares the context for validation of another object. Path buffers are kept, so that a batch
+   * of objects is validated without allocating them again.
+   */
+  void reset() {
+    // Results get a copy of the buffer, so it's kept for the next object.
+    Arrays.fill(errors, 0, errorCount, null);
+    errorCount = 0;
+    totalCount = 0;
+    objectCount = 0;
+    fieldCount = 0;
+    depth = 0;
+    pathCount = 0;
+    clearFrames();
+    root = null;
+    if (visited != null) {
+      visited.clear();
+    }
+    if (ownerCounts != null) {
+      Arrays.fill(owners, null);
+      ownerCounts.clear();
+    }
+  }
+
+  /**
+   * @return collected errors together with the number of all errors found.
+   */
+  ViolationSet getErrors() {
+    return ViolationSet.of(errors, errorCount, totalCount);
+  }
+
+  /**
+   * Returns the path to current value. Path segments are only created here, when an error is
+   * found, and reused by later errors under the same levels.
+   *
+   * @return path to current value.
+   */
+  private PropertyPath currentPath() {
+    PropertyPath path = pathCount == 0 ? PropertyPath.root() : paths[pathCount - 1];
+    for (int i = pathCount; i < depth; ++i) {
+      if (names[i] != null) {
+        path = path.field(names[i]);
+      } else {
+        path = keys[i] != null ? path.key(keys[i]) : path.index(indices[i]);
+      }
+      paths[i] = path;
+    }
+    pathCount = depth;
+    return path;
+  }
+
+  /**
+   * The level that was just entered has changed, so the path created for it is no longer valid.
+   */
+  private void forgetPaths() {
+    if (pathCount >= depth) {
+      pathCount = depth - 1;
+    }
+  }
+
+  private void ensureCapacity() {
+    if (depth == names.length) {
+      names = Arrays.copyOf(names, depth * 2);
+      indices = Arrays.copyOf(indices, depth * 2);
+      keys = Arrays.copyOf(keys, depth * 2);
+      paths = Arrays.copyOf(paths, depth * 2);
+    }
+  }
+
+  // Whether the validation stops at the first error.
+  private final boolean failFast;
+  // Groups of constraints selected for validation.
+  private final Groups groups;
+  // Plans for the selected groups by the plans of Default, null until other groups need one.
+  private Map<ValidationPlan, ValidationPlan> groupPlans;
+  // Maximum number of errors to be collected.
+  private final int maxViolations;
+  // Whether errors over the limit are still counted.
+  private final boolean countingAll;
+  // Lists longer than this are split into chunks.
+  private final int parallelThreshold;
+  // Runs the chunks of large lists.
+  private final Executor executor;
+  // Maximum number of levels in the path to a nested object or list.
+  private final int maxDepth;
+  // Receiver of measurements, null if nothing is measured.
+  private final ValidationListener listener;
+  // Context that forked this one, whose checked objects are not checked again. Null if not a fork.
+  private final ValidationContext parent;
+  // Index of the chunk validated by a fork, 0 if not a fork.
+  private final int chunk;
+  // Index of the first chunk of the container that is done, null if not a fork of a container.
+  private final AtomicInteger firstDoneChunk;
+  // Buffer of collected errors, in the order they were found. Allocated with the first error.
+  private ValidationError[] errors;
+  // Number of errors in the buffer.
+  private int errorCount;
+  // Number of errors found, including the ones over the limit.
+  private int totalCount;
+  // Objects whose fields had the collected errors of a fork, null for errors of list elements.
+  private Object[] owners;
+  // Number of errors found in each object by a fork, including the ones over the limit.
+  private Map<Object, int[]> ownerCounts;
+  // Number of @Constrained objects whose fields were checked.
+  private int objectCount;
+  // Number of fields checked.
+  private int fieldCount;
+  // The first checked object, kept outside of the set until a second object is checked.
+  private Object root;
+  // Checked objects, compared by identity.
+  private Set<Object> visited;
+  // Path to current value: a field name for each level, or null for list indices and map keys.
+  private String[] names;
+  // List indices of the levels of the path that have no field name and no map key.
+  private int[] indices;
+  // Map keys of the levels of the path that have no field name, null for list indices.
+  private Object[] keys;
+  // Number of levels in the path.
+  private int depth;
+  // Paths created for the levels of current path, shared by errors found under them.
+  private PropertyPath[] paths;
+  // Number of levels, from the first one, that have a valid path in paths.
+  private int pathCount;
+  // Traversal stack: objects and lists waiting to be checked. Popped frames are kept for reuse.
+  private TraversalFrame[] frames;
+  // Number of frames on the traversal stack.
+  private int frameCount;
+
+  private static final int INITIAL_DEPTH = 8;
+  private static final int INITIAL_ERRORS = 8;
+  private static final ValidationError[] NO_ERRORS = new ValidationError[0];
+  private static final Object[] NO_OWNERS = new Object[0];
+  private static final int[] NO_COUNT = new int[1];
+
+  static final String MAX_DEPTH_MSG =
+      "ERROR: object graph is nested deeper than the maximum depth ";
+}
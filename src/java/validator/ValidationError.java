@@ -6,5 +6,12 @@ public interface ValidationError {
 
   String getPath();
 
+  /**
+   * @return path to failed value, with access to each field name and list index.
+   */
+  default PropertyPath getPropertyPath() {
+    return PropertyPath.parse(getPath());
+  }
+
   Object getFailedValue();
 }
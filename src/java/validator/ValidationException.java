@@ -5,4 +5,8 @@ public class ValidationException extends RuntimeException {
   public ValidationException(String message) {
     super(message);
   }
+
+  public ValidationException(String message, Throwable cause) {
+    super(message, cause);
+  }
 }
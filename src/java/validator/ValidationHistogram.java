@@ -0,0 +1,283 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Listener that keeps measurements of validation in memory, by the class of validated objects and
+ * by the type of violated annotations. Validation times are kept in a histogram with a bucket for
+ * each power of two nanoseconds, so percentiles are approximate, but recording a time never
+ * allocates. A single instance may be shared by several validators and threads. Measurements are
+ * kept with the classes themselves, so a long-lived histogram doesn't keep classes from being
+ * unloaded.
+ * example: new MyValidator(ValidatorConfig.defaults().withListener(histogram))
+ */
+public final class ValidationHistogram implements ValidationListener {
+
+  @Override
+  public void onValidation(Class<?> type, long nanos, int objects, int fields, int violations) {
+    classes.get(type).list(validated).record(nanos, objects, fields, violations);
+  }
+
+  @Override
+  public void onViolation(Class<? extends Annotation> annotationType) {
+    violations.get(annotationType).list(violated).increment();
+  }
+
+  @Override
+  public void onPlanLookup(Class<?> type, boolean built) {
+    if (built) {
+      planMisses.increment();
+    } else {
+      planHits.increment();
+    }
+  }
+
+  /**
+   * @return classes of the objects validated so far.
+   */
+  public Set<Class<?>> getValidatedClasses() {
+    return typesOf(validated);
+  }
+
+  /**
+   * @param type class of validated objects.
+   * @return number of validated objects of given class.
+   */
+  public long getValidationCount(Class<?> type) {
+    return classes.get(type).value.count.sum();
+  }
+
+  /**
+   * @param type class of validated objects.
+   * @return total time spent on objects of given class, in nanoseconds.
+   */
+  public long getTotalNanos(Class<?> type) {
+    return classes.get(type).value.nanos.sum();
+  }
+
+  /**
+   * Returns an upper bound of the time that given share of validations of a class took at most.
+   *
+   * @param type       class of validated objects.
+   * @param percentile share of validations in percent, from 0 to 100, e.g. 99 for the 99th
+   *                   percentile.
+   * @return upper bound of the percentile, in nanoseconds, at most twice the exact value. 0 if no
+   *     object of given class was validated.
+   */
+  public long getPercentileNanos(Class<?> type, double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new ValidationException(WRONG_PERCENTILE_MSG + percentile);
+    }
+    ClassStatistics statistics = classes.get(type).value;
+    long[] counts = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      counts[i] = statistics.buckets.get(i);
+      total += counts[i];
+    }
+    // Rank of the validation at the percentile, counted from 1.
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return upperBound(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @param type class of validated objects.
+   * @return number of @Constrained objects checked while validating objects of given class,
+   *     including the validated objects themselves.
+   */
+  public long getObjectCount(Class<?> type) {
+    return classes.get(type).value.objects.sum();
+  }
+
+  /**
+   * @param type class of validated objects.
+   * @return number of fields checked while validating objects of given class.
+   */
+  public long getFieldCount(Class<?> type) {
+    return classes.get(type).value.fields.sum();
+  }
+
+  /**
+   * @param type class of validated objects.
+   * @return number of violations found in objects of given class.
+   */
+  public long getViolationCount(Class<?> type) {
+    return classes.get(type).value.violations.sum();
+  }
+
+  /**
+   * @return types of the annotations violated so far.
+   */
+  @SuppressWarnings("unchecked")
+  public Set<Class<? extends Annotation>> getViolatedAnnotations() {
+    return (Set<Class<? extends Annotation>>) (Set<?>) typesOf(violated);
+  }
+
+  /**
+   * @param annotationType type of an annotation, e.g. NotNull.class.
+   * @return number of violations of given annotation.
+   */
+  public long getAnnotationViolationCount(Class<? extends Annotation> annotationType) {
+    return violations.get(annotationType).value.sum();
+  }
+
+  /**
+   * @return number of lookups that found the validation plan of a class in the cache.
+   */
+  public long getPlanHits() {
+    return planHits.sum();
+  }
+
+  /**
+   * @return number of lookups that had to build the validation plan of a class.
+   */
+  public long getPlanMisses() {
+    return planMisses.sum();
+  }
+
+  /**
+   * @param listed measurements that were recorded.
+   * @return classes of the measurements that are still loaded. Measurements of unloaded classes
+   *     are dropped from the set.
+   */
+  private static Set<Class<?>> typesOf(Set<Measurement<?>> listed) {
+    Set<Class<?>> result = new HashSet<>();
+    for (Measurement<?> measurement : listed) {
+      Class<?> type = measurement.type.get();
+      if (type == null) {
+        listed.remove(measurement);
+      } else {
+        result.add(type);
+      }
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * @param factory creates the measurement of a class.
+   * @param <T>     type of the measurement.
+   * @return measurements kept with each class, created on first request.
+   */
+  private static <T> ClassValue<Measurement<T>> perClass(Supplier<T> factory) {
+    return new ClassValue<>() {
+      @Override
+      protected Measurement<T> computeValue(Class<?> type) {
+        return new Measurement<>(type, factory.get());
+      }
+    };
+  }
+
+  /**
+   * @param nanos time in nanoseconds.
+   * @return index of the bucket of given time: 0 for no time at all, otherwise the number of bits
+   *     of the time.
+   */
+  private static int bucketOf(long nanos) {
+    return nanos <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(nanos);
+  }
+
+  /**
+   * @param bucket index of a bucket.
+   * @return the longest time that falls into the bucket.
+   */
+  private static long upperBound(int bucket) {
+    return bucket == Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+  }
+
+  /**
+   * Measurement of a single class, with a weak reference to the class, which lists it among the
+   * recorded ones without keeping it loaded.
+   *
+   * @param <T> type of the measurement.
+   */
+  private static final class Measurement<T> {
+
+    Measurement(Class<?> type, T value) {
+      this.type = new WeakReference<>(type);
+      this.value = value;
+    }
+
+    /**
+     * Adds this measurement to the recorded ones, when something is recorded for the first time.
+     *
+     * @param recorded recorded measurements.
+     * @return the value of this measurement.
+     */
+    T list(Set<Measurement<?>> recorded) {
+      if (!listed) {
+        listed = true;
+        recorded.add(this);
+      }
+      return value;
+    }
+
+    // The measured class.
+    private final WeakReference<Class<?>> type;
+    // The measurement.
+    private final T value;
+    // Whether something was recorded, which adds the measurement to the recorded ones.
+    private volatile boolean listed;
+  }
+
+  /**
+   * Measurements of the objects of a single class.
+   */
+  private static final class ClassStatistics {
+
+    void record(long nanos, int objectCount, int fieldCount, int violationCount) {
+      count.increment();
+      this.nanos.add(nanos);
+      objects.add(objectCount);
+      fields.add(fieldCount);
+      violations.add(violationCount);
+      buckets.incrementAndGet(bucketOf(nanos));
+    }
+
+    // Number of validated objects.
+    private final LongAdder count = new LongAdder();
+    // Total validation time in nanoseconds.
+    private final LongAdder nanos = new LongAdder();
+    // Number of checked @Constrained objects.
+    private final LongAdder objects = new LongAdder();
+    // Number of checked fields.
+    private final LongAdder fields = new LongAdder();
+    // Number of violations found.
+    private final LongAdder violations = new LongAdder();
+    // Number of validations by the bucket of their time.
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  }
+
+  // Measurements by the class of validated objects.
+  private final ClassValue<Measurement<ClassStatistics>> classes =
+      perClass(ClassStatistics::new);
+  // Measurements of the classes of validated objects, for listing the classes.
+  private final Set<Measurement<?>> validated = ConcurrentHashMap.newKeySet();
+  // Number of violations by the type of the annotation.
+  private final ClassValue<Measurement<LongAdder>> violations = perClass(LongAdder::new);
+  // Measurements of the types of violated annotations, for listing the types.
+  private final Set<Measurement<?>> violated = ConcurrentHashMap.newKeySet();
+  // Lookups of cached validation plans.
+  private final LongAdder planHits = new LongAdder();
+  // Lookups that built a validation plan.
+  private final LongAdder planMisses = new LongAdder();
+
+  // A bucket for no time and one for each number of bits of a positive long.
+  private static final int BUCKET_COUNT = Long.SIZE;
+
+  static final String WRONG_PERCENTILE_MSG = "ERROR: percentile must be between 0 and 100, got ";
+}
@@ -0,0 +1,53 @@
+package validator;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Receives measurements of a validator, set with ValidatorConfig.withListener(). A listener may be
+ * called from several threads at once, when a validator is shared or validates large lists in
+ * parallel, so implementations must be thread-safe. Every method does nothing by default.
+ */
+public interface ValidationListener {
+
+  /**
+   * @return listener that ignores everything. Validators that have it skip the measurements
+   *     altogether.
+   */
+  static ValidationListener none() {
+    return ValidatorConfig.NO_LISTENER;
+  }
+
+  /**
+   * Called when an object is validated by a call of the validator, after its whole object graph is
+   * checked. Objects of a batch are reported one by one. Results taken from the result cache are
+   * not reported.
+   *
+   * @param type       class of the validated object.
+   * @param nanos      time spent on the object graph, in nanoseconds.
+   * @param objects    number of @Constrained objects whose fields were checked, including the
+   *                   validated object.
+   * @param fields     number of fields checked.
+   * @param violations number of violations found, including the ones over the limit.
+   */
+  default void onValidation(Class<?> type, long nanos, int objects, int fields, int violations) {
+  }
+
+  /**
+   * Called for each violation of a constraint annotation. Values of a streamed document that don't
+   * match their declared type are reported as violations of Constrained.class.
+   *
+   * @param annotationType type of the violated annotation, e.g. NotNull.class.
+   */
+  default void onViolation(Class<? extends Annotation> annotationType) {
+  }
+
+  /**
+   * Called when the validation plan of a class is looked up.
+   *
+   * @param type  class of the plan.
+   * @param built false if the plan was cached, true if it was built by this lookup.
+   */
+  default void onPlanLookup(Class<?> type, boolean built) {
+  }
+}
+
@@ -0,0 +1,240 @@
+package validator;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reflection metadata of a class, resolved once and reused by every validation of its objects.
+ */
+final class ValidationPlan {
+
+  private ValidationPlan(Class<?> type, boolean findGenerated, Groups groups) {
+    ++BUILT_PLANS.get()[0];
+    Constrained annotation = type.getAnnotation(Constrained.class);
+    this.type = type;
+    this.findGenerated = findGenerated;
+    this.groups = groups;
+    constrained = annotation != null;
+    immutable = constrained && annotation.immutable();
+    // Plans of other groups are derived from the plan of Default and kept with it.
+    groupPlans = constrained && groups == Groups.DEFAULT ? new ConcurrentHashMap<>() : null;
+    // Fields are only needed if the objects of this class are going to be inspected.
+    if (constrained) {
+      GeneratedPlan<?> generatedPlan = findGenerated ? GeneratedPlans.find(type) : null;
+      generated = generatedPlan != null;
+      // Fields of base classes come first, from the topmost one down to this class.
+      List<FieldPlan> plans = new ArrayList<>();
+      for (Class<?> base : superclasses(type)) {
+        addFields(plans, base, findGenerated, null, groups);
+      }
+      addFields(plans, type, findGenerated, generatedPlan, groups);
+      fields = plans.toArray(new FieldPlan[0]);
+    } else {
+      generated = false;
+      fields = new FieldPlan[0];
+    }
+  }
+
+  /**
+   * Returns the plan of given class, building it on first request.
+   *
+   * @param type class of the object to be validated.
+   * @param mode how the fields of the object are read.
+   * @return cached validation plan.
+   */
+  static ValidationPlan of(Class<?> type, AccessMode mode) {
+    if (mode == AccessMode.REFLECTION) {
+      return REFLECTIVE_PLANS.get(type);
+    }
+    return GENERATED_PLANS.get(type);
+  }
+
+  /**
+   * Returns the plan of the same class that only checks the constraints of given groups. Plans are
+   * built once per set of groups, so constraints of other groups cost nothing during validation.
+   *
+   * @param selected groups of constraints selected for validation.
+   * @return cached validation plan of the groups.
+   */
+  ValidationPlan forGroups(Groups selected) {
+    if (selected == groups || groupPlans == null) {
+      return this;
+    }
+    ValidationPlan plan = groupPlans.get(selected);
+    if (plan == null) {
+      plan = groupPlans.computeIfAbsent(selected,
+          key -> new ValidationPlan(type, findGenerated, key));
+    }
+    return plan;
+  }
+
+  /**
+   * Returns the plan of given class like of(), and tells a listener if it was cached.
+   *
+   * @param type     class of the object to be validated.
+   * @param mode     how the fields of the object are read.
+   * @param listener receiver of the lookup, or null if lookups are not measured.
+   * @return cached validation plan.
+   */
+  static ValidationPlan of(Class<?> type, AccessMode mode, ValidationListener listener) {
+    if (listener == null) {
+      return of(type, mode);
+    }
+    // A plan built on this thread during the lookup is the one that was missing from the cache.
+    int[] built = BUILT_PLANS.get();
+    int before = built[0];
+    ValidationPlan plan = of(type, mode);
+    listener.onPlanLookup(type, built[0] != before);
+    return plan;
+  }
+
+  /**
+   * Returns the plan of given class resolved from its declarations with reflection, even if a
+   * plan was generated for it. Unlike generated plans, it knows the declared types of container
+   * elements.
+   *
+   * @param type class of the values to be checked.
+   * @return cached validation plan.
+   */
+  static ValidationPlan declared(Class<?> type) {
+    return REFLECTIVE_PLANS.get(type);
+  }
+
+  /**
+   * @return true if the class is marked with @Constrained.
+   */
+  boolean isConstrained() {
+    return constrained;
+  }
+
+  /**
+   * @return true if the class is marked with @Constrained(immutable = true).
+   */
+  boolean isImmutable() {
+    return immutable;
+  }
+
+  /**
+   * @return true if the plan of the class itself was generated by ConstrainedProcessor.
+   */
+  boolean isGenerated() {
+    return generated;
+  }
+
+  /**
+   * @return plans of the fields to be checked: inherited fields first, then each class in
+   *     declaration order.
+   */
+  FieldPlan[] getFields() {
+    return fields;
+  }
+
+  /**
+   * Finds a field by its name. Classes have few fields, so they are scanned faster than they are
+   * hashed.
+   *
+   * @param name name of a field.
+   * @return index of the field in getFields(), or -1 if there is no such field. Of two fields with
+   *     the same name, the one declared by the subclass is found.
+   */
+  int indexOf(String name) {
+    for (int i = fields.length - 1; i >= 0; --i) {
+      if (fields[i].getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param type a class.
+   * @return superclasses of given class that may declare fields, the topmost first. The walk
+   *     stops at the first class whose fields can't be read, such as a class of the JDK, since
+   *     its module doesn't open its package to this library.
+   */
+  private static List<Class<?>> superclasses(Class<?> type) {
+    List<Class<?>> result = new ArrayList<>();
+    for (Class<?> base = type.getSuperclass(); base != null && isOpen(base);
+        base = base.getSuperclass()) {
+      result.add(0, base);
+    }
+    return result;
+  }
+
+  /**
+   * @param type a class.
+   * @return true if the module of the class opens its package to this library, which lets the
+   *     fields of the class be read.
+   */
+  private static boolean isOpen(Class<?> type) {
+    return type.getModule().isOpen(type.getPackageName(), ValidationPlan.class.getModule());
+  }
+
+  /**
+   * Adds the plans of the fields declared by given class.
+   *
+   * @param plans         plans of the fields found so far.
+   * @param type          class declaring the fields.
+   * @param findGenerated whether generated plans are used where they exist.
+   * @param generatedPlan plan generated for the class, or null if it's to be looked up.
+   * @param groups        groups of constraints selected for validation.
+   */
+  private static void addFields(List<FieldPlan> plans, Class<?> type, boolean findGenerated,
+      GeneratedPlan<?> generatedPlan, Groups groups) {
+    if (findGenerated && generatedPlan == null && type.isAnnotationPresent(Constrained.class)) {
+      generatedPlan = GeneratedPlans.find(type);
+    }
+    if (generatedPlan != null) {
+      // Plan generated at compile time doesn't need any reflection.
+      for (GeneratedField<?> field : generatedPlan.fields()) {
+        plans.add(new FieldPlan(field, groups));
+      }
+      return;
+    }
+    for (Field field : type.getDeclaredFields()) {
+      // Inner classes contain a field called 'this$0', which holds
+      // the reference to outer class. We don't need to check this field,
+      // or any other synthetic field (created by the compiler).
+      if (!field.isSynthetic()) {
+        plans.add(new FieldPlan(field, groups));
+      }
+    }
+  }
+
+  // The class described by this plan.
+  private final Class<?> type;
+  // Whether generated plans are used where they exist.
+  private final boolean findGenerated;
+  // Groups of the constraints checked by this plan.
+  private final Groups groups;
+  // Plans of other groups by their groups, null unless this is the plan of Default.
+  private final ConcurrentMap<Groups, ValidationPlan> groupPlans;
+  // Whether objects of the class are subjected to checking.
+  private final boolean constrained;
+  // Whether objects of the class never change, so their results may be cached.
+  private final boolean immutable;
+  // Whether the plan was generated at compile time.
+  private final boolean generated;
+  // Plans of non-synthetic fields declared by the class and its superclasses, base classes first.
+  private final FieldPlan[] fields;
+
+  // Number of plans built by each thread, which tells cached plans from new ones.
+  private static final ThreadLocal<int[]> BUILT_PLANS = ThreadLocal.withInitial(() -> new int[1]);
+  // ClassValue keeps the plan alongside the class itself, so it is dropped
+  // together with the class when its class loader is unloaded.
+  private static final ClassValue<ValidationPlan> GENERATED_PLANS = new ClassValue<>() {
+    @Override
+    protected ValidationPlan computeValue(Class<?> type) {
+      return new ValidationPlan(type, true, Groups.DEFAULT);
+    }
+  };
+  private static final ClassValue<ValidationPlan> REFLECTIVE_PLANS = new ClassValue<>() {
+    @Override
+    protected ValidationPlan computeValue(Class<?> type) {
+      return new ValidationPlan(type, false, Groups.DEFAULT);
+    }
+  };
+}
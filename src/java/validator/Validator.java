@@ -1,5 +1,12 @@
 package validator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface Validator {
@@ -10,4 +17,118 @@ public interface Validator {
    * @return set of discovered validation errors.
    */
   Set<ValidationError> validate(Object object);
+
+  /**
+   * Looks for errors in given object's fields, checking only the constraints of given groups. A
+   * constraint is checked if one of its groups is given, or is extended by a given group.
+   * Constraints without groups belong to Default.
+   * This implementation only supports Default, which it validates with validate(object).
+   * @param object object to be checked.
+   * @param groups groups of constraints to be checked, none for Default.
+   * @return set of discovered validation errors.
+   * @throws ValidationException if other groups are given and the implementation can't select
+   *     them.
+   */
+  default Set<ValidationError> validate(Object object, Class<?>... groups) {
+    if (Groups.of(groups) != Groups.DEFAULT) {
+      throw new ValidationException(Groups.UNSUPPORTED_GROUPS_MSG);
+    }
+    return validate(object);
+  }
+
+  /**
+   * Checks if given object has no validation errors. Implementations may stop at the first error.
+   * @param object object to be checked.
+   * @return true if no validation errors were found.
+   */
+  default boolean isValid(Object object) {
+    return validate(object).isEmpty();
+  }
+
+  /**
+   * Looks for errors in each object of given collection.
+   * @param objects objects to be checked.
+   * @return sets of discovered validation errors by the index of the object in iteration order of
+   *     the collection, in ascending order. Valid objects are left out.
+   */
+  default Map<Integer, Set<ValidationError>> validateAll(Collection<?> objects) {
+    Map<Integer, Set<ValidationError>> results = new LinkedHashMap<>();
+    int index = 0;
+    for (Object object : objects) {
+      Set<ValidationError> errors = validate(object);
+      if (!errors.isEmpty()) {
+        results.put(index, errors);
+      }
+      ++index;
+    }
+    return results;
+  }
+
+  /**
+   * Looks for errors in the value at given path of an object and in everything reachable from that
+   * value, e.g. after the value was changed. Reported paths start at the object.
+   * @param object object to be checked.
+   * @param path   path to the value in the format of ValidationError.getPath(), e.g.
+   *               "guests[3].age".
+   * @return set of discovered validation errors.
+   */
+  default Set<ValidationError> validateProperty(Object object, String path) {
+    return validateProperties(object, Collections.singletonList(path));
+  }
+
+  /**
+   * Looks for errors in the value at given path of an object like validateProperty(object, path),
+   * checking only the constraints of given groups, as validate(object, groups) does.
+   * This implementation only supports Default, which it validates with validateProperty().
+   * @param object object to be checked.
+   * @param path   path to the value in the format of ValidationError.getPath().
+   * @param groups groups of constraints to be checked, none for Default.
+   * @return set of discovered validation errors.
+   * @throws ValidationException if other groups are given and the implementation can't select
+   *     them.
+   */
+  default Set<ValidationError> validateProperty(Object object, String path, Class<?>... groups) {
+    return validateProperties(object, Collections.singletonList(path), groups);
+  }
+
+  /**
+   * Looks for errors in the values at given paths of an object and in everything reachable from
+   * them. This implementation validates the whole object and keeps the errors under the paths.
+   * @param object object to be checked.
+   * @param paths  paths to the values in the format of ValidationError.getPath().
+   * @return set of discovered validation errors.
+   */
+  default Set<ValidationError> validateProperties(Object object, Collection<String> paths) {
+    List<PropertyPath> prefixes = new ArrayList<>();
+    for (String path : paths) {
+      prefixes.add(PropertyPath.parse(path));
+    }
+    Set<ValidationError> results = new LinkedHashSet<>();
+    for (ValidationError error : validate(object)) {
+      PropertyPath errorPath = error.getPropertyPath();
+      if (prefixes.stream().anyMatch(errorPath::startsWith)) {
+        results.add(error);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Looks for errors in the values at given paths of an object like validateProperties(object,
+   * paths), checking only the constraints of given groups, as validate(object, groups) does.
+   * This implementation only supports Default, which it validates with validateProperties().
+   * @param object object to be checked.
+   * @param paths  paths to the values in the format of ValidationError.getPath().
+   * @param groups groups of constraints to be checked, none for Default.
+   * @return set of discovered validation errors.
+   * @throws ValidationException if other groups are given and the implementation can't select
+   *     them.
+   */
+  default Set<ValidationError> validateProperties(Object object, Collection<String> paths,
+      Class<?>... groups) {
+    if (Groups.of(groups) != Groups.DEFAULT) {
+      throw new ValidationException(Groups.UNSUPPORTED_GROUPS_MSG);
+    }
+    return validateProperties(object, paths);
+  }
 }
@@ -0,0 +1,240 @@
+package validator;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Settings of a MyValidator. Instances are immutable, each with...() method returns a copy with
+ * one setting changed.
+ */
+public final class ValidatorConfig {
+
+  private ValidatorConfig(AccessMode accessMode, boolean failFast, int maxViolations,
+      boolean countingAll, int parallelThreshold, Executor executor, int maxDepth,
+      int resultCacheSize, ValidationListener listener) {
+    this.accessMode = accessMode;
+    this.failFast = failFast;
+    this.maxViolations = maxViolations;
+    this.countingAll = countingAll;
+    this.parallelThreshold = parallelThreshold;
+    this.executor = executor;
+    this.maxDepth = maxDepth;
+    this.resultCacheSize = resultCacheSize;
+    this.listener = listener;
+  }
+
+  /**
+   * @return settings that read fields with generated plans where there are some, collect every
+   *     violation without limit, follow nested objects at any depth, validate lists sequentially,
+   *     cache nothing and measure nothing.
+   */
+  public static ValidatorConfig defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * @param accessMode how the fields of validated objects are read.
+   * @return copy of these settings with given access mode.
+   */
+  public ValidatorConfig withAccessMode(AccessMode accessMode) {
+    if (accessMode == null) {
+      throw new ValidationException(NULL_SETTING_MSG);
+    }
+    return new ValidatorConfig(accessMode, this.failFast, this.maxViolations, this.countingAll,
+        this.parallelThreshold, this.executor, this.maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * @param failFast whether validation stops at the first violation.
+   * @return copy of these settings with given fail-fast mode.
+   */
+  public ValidatorConfig withFailFast(boolean failFast) {
+    return new ValidatorConfig(this.accessMode, failFast, this.maxViolations, this.countingAll,
+        this.parallelThreshold, this.executor, this.maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * Limits the number of collected violations. Once the limit is exceeded, validation stops and the
+   * result is marked as truncated, unless counting beyond the limit is enabled.
+   *
+   * @param maxViolations maximum number of violations to be collected, at least 1.
+   * @return copy of these settings with given limit.
+   */
+  public ValidatorConfig withMaxViolations(int maxViolations) {
+    if (maxViolations < 1) {
+      throw new ValidationException(WRONG_MAX_VIOLATIONS_MSG + maxViolations);
+    }
+    return new ValidatorConfig(this.accessMode, this.failFast, maxViolations, this.countingAll,
+        this.parallelThreshold, this.executor, this.maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * @param countingAll whether validation goes on after the limit of violations is exceeded, to
+   *                    count all of them without collecting.
+   * @return copy of these settings with given counting mode.
+   */
+  public ValidatorConfig withCountingBeyondLimit(boolean countingAll) {
+    return new ValidatorConfig(this.accessMode, this.failFast, this.maxViolations, countingAll,
+        this.parallelThreshold, this.executor, this.maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * Enables parallel validation of large lists. Elements of a list longer than the threshold are
+   * split into chunks of at most threshold elements, which are validated on the executor. Lists
+   * inside a chunk are validated sequentially.
+   *
+   * @param parallelThreshold maximum number of list elements validated by a single thread, at
+   *                          least 1.
+   * @return copy of these settings with given threshold.
+   */
+  public ValidatorConfig withParallelThreshold(int parallelThreshold) {
+    if (parallelThreshold < 1) {
+      throw new ValidationException(WRONG_PARALLEL_THRESHOLD_MSG + parallelThreshold);
+    }
+    return new ValidatorConfig(this.accessMode, this.failFast, this.maxViolations, this.countingAll,
+        parallelThreshold, this.executor, this.maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * @param executor executor running the chunks of large lists, ForkJoinPool.commonPool() by
+   *                 default. Only used if a parallel threshold is set.
+   * @return copy of these settings with given executor.
+   */
+  public ValidatorConfig withExecutor(Executor executor) {
+    if (executor == null) {
+      throw new ValidationException(NULL_SETTING_MSG);
+    }
+    return new ValidatorConfig(this.accessMode, this.failFast, this.maxViolations, this.countingAll,
+        this.parallelThreshold, executor, this.maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * Limits how deep nested objects and lists are followed. Traversal doesn't use the call stack, so
+   * the limit only guards against unexpectedly deep object graphs. A validation that reaches
+   * deeper throws a ValidationException.
+   *
+   * @param maxDepth maximum number of fields and list indices in the path to a nested object or
+   *                 list, at least 0.
+   * @return copy of these settings with given limit.
+   */
+  public ValidatorConfig withMaxDepth(int maxDepth) {
+    if (maxDepth < 0) {
+      throw new ValidationException(WRONG_MAX_DEPTH_MSG + maxDepth);
+    }
+    return new ValidatorConfig(this.accessMode, this.failFast, this.maxViolations, this.countingAll,
+        this.parallelThreshold, this.executor, maxDepth, this.resultCacheSize, this.listener);
+  }
+
+  /**
+   * Enables caching of validation results for objects of classes marked with
+   * @Constrained(immutable = true). Validating such an object again with the same validator is a
+   * lookup by the identity of the object. Objects are weakly referenced by the cache, and the
+   * least recently used results are dropped once the cache is full. Results with failed values
+   * other than strings, numbers and the like are not cached.
+   *
+   * @param resultCacheSize maximum number of cached results, 0 to disable caching.
+   * @return copy of these settings with given cache size.
+   */
+  public ValidatorConfig withResultCacheSize(int resultCacheSize) {
+    if (resultCacheSize < 0) {
+      throw new ValidationException(WRONG_RESULT_CACHE_SIZE_MSG + resultCacheSize);
+    }
+    return new ValidatorConfig(this.accessMode, this.failFast, this.maxViolations, this.countingAll,
+        this.parallelThreshold, this.executor, this.maxDepth, resultCacheSize, this.listener);
+  }
+
+  /**
+   * Sets a listener that receives measurements of validation: time spent on each validated object,
+   * numbers of checked objects and fields, violations by annotation type and lookups of validation
+   * plans. Without a listener, nothing is measured.
+   *
+   * @param listener receiver of the measurements, ValidationListener.none() to measure nothing.
+   * @return copy of these settings with given listener.
+   */
+  public ValidatorConfig withListener(ValidationListener listener) {
+    if (listener == null) {
+      throw new ValidationException(NULL_SETTING_MSG);
+    }
+    return new ValidatorConfig(this.accessMode, this.failFast, this.maxViolations, this.countingAll,
+        this.parallelThreshold, this.executor, this.maxDepth, this.resultCacheSize, listener);
+  }
+
+  public AccessMode getAccessMode() {
+    return accessMode;
+  }
+
+  public boolean isFailFast() {
+    return failFast;
+  }
+
+  public int getMaxViolations() {
+    return maxViolations;
+  }
+
+  public boolean isCountingBeyondLimit() {
+    return countingAll;
+  }
+
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public int getResultCacheSize() {
+    return resultCacheSize;
+  }
+
+  public ValidationListener getListener() {
+    return listener;
+  }
+
+  /**
+   * @return true if a listener other than ValidationListener.none() is set.
+   */
+  boolean isListening() {
+    return listener != NO_LISTENER;
+  }
+
+  // How the fields of validated objects are read.
+  private final AccessMode accessMode;
+  // Whether validation stops at the first violation, so at most one error is reported.
+  private final boolean failFast;
+  // Maximum number of collected violations.
+  private final int maxViolations;
+  // Whether violations over the limit are still counted.
+  private final boolean countingAll;
+  // Lists longer than this are validated in parallel.
+  private final int parallelThreshold;
+  // Runs the chunks of large lists.
+  private final Executor executor;
+  // Maximum depth of nested objects and lists.
+  private final int maxDepth;
+  // Maximum number of cached results of immutable objects, 0 if there is no cache.
+  private final int resultCacheSize;
+  // Receiver of measurements, NO_LISTENER if nothing is measured.
+  private final ValidationListener listener;
+
+  // Listener that ignores everything.
+  static final ValidationListener NO_LISTENER = new ValidationListener() {
+  };
+
+  private static final ValidatorConfig DEFAULTS = new ValidatorConfig(AccessMode.GENERATED, false,
+      Integer.MAX_VALUE, false, Integer.MAX_VALUE, ForkJoinPool.commonPool(), Integer.MAX_VALUE, 0,
+      NO_LISTENER);
+
+  static final String NULL_SETTING_MSG = "ERROR: validator setting must not be null.";
+  static final String WRONG_MAX_VIOLATIONS_MSG =
+      "ERROR: maximum number of violations must be positive, got ";
+  static final String WRONG_PARALLEL_THRESHOLD_MSG =
+      "ERROR: parallel threshold must be positive, got ";
+  static final String WRONG_MAX_DEPTH_MSG = "ERROR: maximum depth must not be negative, got ";
+  static final String WRONG_RESULT_CACHE_SIZE_MSG =
+      "ERROR: result cache size must not be negative, got ";
+}
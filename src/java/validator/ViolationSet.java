@@ -0,0 +1,161 @@
+package validator;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unmodifiable set of validation errors returned by MyValidator. When the number of violations is
+ * capped with ValidatorConfig.withMaxViolations(), the set also tells if some violations were left
+ * out. Errors are kept in an array in the order they were found, and every valid object gets the
+ * same empty set.
+ */
+public final class ViolationSet extends AbstractSet<ValidationError> {
+
+  /**
+   * @param errors     collected validation errors, without duplicates. The array is not copied.
+   * @param totalCount number of violations found, including the ones that weren't collected.
+   */
+  private ViolationSet(ValidationError[] errors, int totalCount) {
+    this.errors = errors;
+    this.totalCount = totalCount;
+  }
+
+  /**
+   * @return shared set of no errors.
+   */
+  static ViolationSet empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Builds a set of the errors collected by a validation. Equal errors are kept once.
+   *
+   * @param errors     buffer of collected errors, copied by this method.
+   * @param count      number of errors in the buffer.
+   * @param totalCount number of violations found, including the ones that weren't collected.
+   * @return the set, or the shared empty set if nothing was found.
+   */
+  static ViolationSet of(ValidationError[] errors, int count, int totalCount) {
+    if (totalCount == 0) {
+      return EMPTY;
+    }
+    ValidationError[] unique = Arrays.copyOf(errors, count);
+    int uniqueCount = removeDuplicates(unique);
+    if (uniqueCount < count) {
+      unique = Arrays.copyOf(unique, uniqueCount);
+    }
+    // Each duplicate was counted as a violation of its own.
+    return new ViolationSet(unique, totalCount - (count - uniqueCount));
+  }
+
+  /**
+   * Moves the first occurrence of each error to the front of the array, keeping their order.
+   *
+   * @param errors errors that may contain duplicates.
+   * @return number of distinct errors at the front of the array.
+   */
+  private static int removeDuplicates(ValidationError[] errors) {
+    if (errors.length < 2) {
+      return errors.length;
+    }
+    // Small sets are compared pairwise rather than hashed.
+    Set<ValidationError> seen = errors.length > LINEAR_SEARCH_LIMIT ? new HashSet<>() : null;
+    int count = 0;
+    for (ValidationError error : errors) {
+      boolean duplicate = seen != null
+          ? !seen.add(error)
+          : indexOf(errors, count, error) >= 0;
+      if (!duplicate) {
+        errors[count++] = error;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param errors array of errors.
+   * @param count  number of errors to be searched, from the first one.
+   * @param error  error to be found.
+   * @return index of an equal error, or -1 if there is none.
+   */
+  private static int indexOf(ValidationError[] errors, int count, Object error) {
+    for (int i = 0; i < count; ++i) {
+      if (errors[i].equals(error)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public Iterator<ValidationError> iterator() {
+    // Doesn't support remove().
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return next < errors.length;
+      }
+
+      @Override
+      public ValidationError next() {
+        if (next == errors.length) {
+          throw new NoSuchElementException();
+        }
+        return errors[next++];
+      }
+
+      // Index of the next error.
+      private int next;
+    };
+  }
+
+  @Override
+  public int size() {
+    return errors.length;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (errors.length <= LINEAR_SEARCH_LIMIT) {
+      return indexOf(errors, errors.length, o) >= 0;
+    }
+    Set<ValidationError> result = index;
+    if (result == null) {
+      result = new HashSet<>(Arrays.asList(errors));
+      index = result;
+    }
+    return result.contains(o);
+  }
+
+  /**
+   * @return true if some violations were found but not collected because of the limit.
+   */
+  public boolean isTruncated() {
+    return totalCount > errors.length;
+  }
+
+  /**
+   * Returns the number of violations found. Unless counting beyond the limit is enabled, validation
+   * stops at the first violation over the limit, so the count is a lower bound when truncated.
+   *
+   * @return number of violations found, including the ones that weren't collected.
+   */
+  public int getTotalCount() {
+    return totalCount;
+  }
+
+  // Collected validation errors, in the order they were found.
+  private final ValidationError[] errors;
+  // Number of violations found, including the ones left out.
+  private final int totalCount;
+  // Hash set of the errors of a large set, built by the first contains().
+  private volatile Set<ValidationError> index;
+
+  // Maximum number of errors that are searched without a hash set.
+  private static final int LINEAR_SEARCH_LIMIT = 8;
+  private static final ViolationSet EMPTY = new ViolationSet(new ValidationError[0], 0);
+}
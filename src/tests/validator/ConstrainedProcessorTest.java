@@ -0,0 +1,278 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConstrainedProcessorTest {
+
+  Path dir;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    dir = Files.createTempDirectory("processor");
+  }
+
+  // Compiles given sources of package 'gen' with ConstrainedProcessor enabled
+  private ClassLoader compile(String... sources) throws Exception {
+    Path sourceDir = dir.resolve("src/gen");
+    Path outputDir = dir.resolve("classes");
+    Files.createDirectories(sourceDir);
+    Files.createDirectories(outputDir);
+    // Generated sources need the classes of this library
+    String classPath = Path.of(Constrained.class.getProtectionDomain().getCodeSource()
+        .getLocation().toURI()) + File.pathSeparator + outputDir;
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      for (int i = 0; i < sources.length; i += 2) {
+        Files.writeString(sourceDir.resolve(sources[i] + ".java"), sources[i + 1]);
+      }
+      var units = fileManager.getJavaFileObjects(Files.list(sourceDir).toArray(Path[]::new));
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+          List.of("-d", outputDir.toString(), "-s", outputDir.toString(),
+              "-cp", classPath),
+          null, units);
+      task.setProcessors(List.of(new ConstrainedProcessor()));
+      assertTrue(task.call());
+    }
+    return new URLClassLoader(new URL[]{outputDir.toUri().toURL()}, getClass().getClassLoader());
+  }
+
+  @Test
+  void generatePlan() throws Exception {
+    ClassLoader loader = compile("Guest", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "import java.util.List;\n"
+        + "@Constrained\n"
+        + "public class Guest {\n"
+        + "  @NotNull @NotBlank private final String name;\n"
+        + "  @InRange(min = 0, max = 200) final int age;\n"
+        + "  final List<@NotEmpty List<@AnyOf({\"A\", \"B\"}) String>> tags;\n"
+        + "  Guest friend;\n"
+        + "  public Guest(String name, int age, List<List<String>> tags, Guest friend) {\n"
+        + "    this.name = name;\n"
+        + "    this.age = age;\n"
+        + "    this.tags = tags;\n"
+        + "    this.friend = friend;\n"
+        + "  }\n"
+        + "  public String getName() {\n"
+        + "    return name;\n"
+        + "  }\n"
+        + "}\n");
+    Class<?> guestClass = loader.loadClass("gen.Guest");
+    assertNotNull(loader.loadClass("gen.Guest_ConstrainedPlan"));
+    assertTrue(ValidationPlan.of(guestClass, AccessMode.GENERATED).isGenerated());
+    assertFalse(ValidationPlan.of(guestClass, AccessMode.REFLECTION).isGenerated());
+    var constructor = guestClass.getConstructor(String.class, int.class, List.class, guestClass);
+    Object friend = constructor.newInstance("", 300, List.of(), null);
+    Object guest = constructor.newInstance(null, 20,
+        List.of(List.of("A", "C"), List.of()), friend);
+    Set<ValidationError> errors = new MyValidator().validate(guest);
+    assertEquals(5, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("name")
+        && x.getMessage().equals("Must not be null")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("tags[0][1]")
+        && x.getMessage().equals("Must be one of 'A', 'B'")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("tags[1]")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("friend.name")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("friend.age")
+        && Integer.valueOf(300).equals(x.getFailedValue())));
+  }
+
+  @Test
+  void keepPlansOfEarlierCompilations() throws Exception {
+    compile("First", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "@Constrained\n"
+        + "public class First {\n"
+        + "  @NotNull String name;\n"
+        + "}\n");
+    // Only the new class is compiled the second time, like in an incremental build
+    Files.delete(dir.resolve("src/gen/First.java"));
+    ClassLoader loader = compile("Second", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "@Constrained\n"
+        + "public class Second {\n"
+        + "  @NotNull String name;\n"
+        + "}\n");
+    assertEquals(List.of("gen.First_ConstrainedPlan", "gen.Second_ConstrainedPlan"),
+        Files.readAllLines(dir.resolve("classes/META-INF/services/validator.GeneratedPlan")));
+    assertTrue(ValidationPlan.of(loader.loadClass("gen.First"), AccessMode.GENERATED)
+        .isGenerated());
+    assertTrue(ValidationPlan.of(loader.loadClass("gen.Second"), AccessMode.GENERATED)
+        .isGenerated());
+  }
+
+  @Test
+  void skipPrivateFieldWithoutGetter() throws Exception {
+    ClassLoader loader = compile("Hidden", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "@Constrained\n"
+        + "public class Hidden {\n"
+        + "  @NotNull private final String name;\n"
+        + "  public Hidden(String name) {\n"
+        + "    this.name = name;\n"
+        + "  }\n"
+        + "}\n");
+    Class<?> hiddenClass = loader.loadClass("gen.Hidden");
+    assertFalse(ValidationPlan.of(hiddenClass, AccessMode.GENERATED).isGenerated());
+    // Falls back to reflection
+    Object hidden = hiddenClass.getConstructor(String.class).newInstance((Object) null);
+    assertEquals(1, new MyValidator().validate(hidden).size());
+  }
+
+  @Test
+  void skipAnnotatedMapValues() throws Exception {
+    ClassLoader loader = compile("Scores", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "import java.util.Map;\n"
+        + "@Constrained\n"
+        + "public class Scores {\n"
+        + "  final Map<String, @Positive Integer> scores;\n"
+        + "  public Scores(Map<String, Integer> scores) {\n"
+        + "    this.scores = scores;\n"
+        + "  }\n"
+        + "}\n");
+    Class<?> scoresClass = loader.loadClass("gen.Scores");
+    assertFalse(ValidationPlan.of(scoresClass, AccessMode.GENERATED).isGenerated());
+    Object scores = scoresClass.getConstructor(Map.class).newInstance(Map.of("a", -1, "b", 2));
+    Set<ValidationError> errors = new MyValidator().validate(scores);
+    assertEquals(1, errors.size());
+    assertEquals("scores[a]", errors.iterator().next().getPath());
+  }
+
+  @Test
+  void combineGeneratedPlanWithBaseClass() throws Exception {
+    ClassLoader loader = compile("Base", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "public abstract class Base {\n"
+        + "  @NotBlank final String id;\n"
+        + "  protected Base(String id) {\n"
+        + "    this.id = id;\n"
+        + "  }\n"
+        + "}\n", "Item", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "@Constrained\n"
+        + "public class Item extends Base {\n"
+        + "  @Positive final int count;\n"
+        + "  public Item(String id, int count) {\n"
+        + "    super(id);\n"
+        + "    this.count = count;\n"
+        + "  }\n"
+        + "}\n");
+    Class<?> itemClass = loader.loadClass("gen.Item");
+    assertTrue(ValidationPlan.of(itemClass, AccessMode.GENERATED).isGenerated());
+    Object item = itemClass.getConstructor(String.class, int.class).newInstance("", 0);
+    Set<ValidationError> errors = new MyValidator().validate(item);
+    assertEquals(2, errors.size());
+    // Inherited fields are read with reflection
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("id")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("count")));
+  }
+
+  @Test
+  void generatePlanWithGroups() throws Exception {
+    ClassLoader loader = compile("Create", ""
+        + "package gen;\n"
+        + "public interface Create {\n"
+        + "}\n", "Account", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "import java.util.List;\n"
+        + "@Constrained\n"
+        + "public class Account {\n"
+        + "  @NotBlank @Size(min = 3, max = 8, groups = Create.class) final String name;\n"
+        + "  @InRange(min = 1, max = 9, groups = {Create.class, Default.class}) final int level;\n"
+        + "  final List<@AnyOf(value = {\"A\"}, groups = Create.class) String> tags;\n"
+        + "  public Account(String name, int level, List<String> tags) {\n"
+        + "    this.name = name;\n"
+        + "    this.level = level;\n"
+        + "    this.tags = tags;\n"
+        + "  }\n"
+        + "}\n");
+    Class<?> accountClass = loader.loadClass("gen.Account");
+    Class<?> create = loader.loadClass("gen.Create");
+    assertTrue(ValidationPlan.of(accountClass, AccessMode.GENERATED).isGenerated());
+    Object account = accountClass.getConstructor(String.class, int.class, List.class)
+        .newInstance(" ", 0, List.of("B"));
+    MyValidator validator = new MyValidator();
+    assertEquals(Set.of("name", "level"), validator.validate(account).stream()
+        .map(ValidationError::getPath).collect(Collectors.toSet()));
+    assertEquals(Set.of("name", "level", "tags[0]"), validator.validate(account, create).stream()
+        .map(ValidationError::getPath).collect(Collectors.toSet()));
+    assertEquals(4, validator.validate(account, create, Default.class).size());
+  }
+
+  @Test
+  void discoverCustomConstraintValidators() throws Exception {
+    ClassLoader loader = compile("Digits", ""
+        + "package gen;\n"
+        + "import java.lang.annotation.*;\n"
+        + "@validator.CustomConstraint\n"
+        + "@Retention(RetentionPolicy.RUNTIME)\n"
+        + "@Target(ElementType.TYPE_USE)\n"
+        + "public @interface Digits {\n"
+        + "  int length();\n"
+        + "}\n", "DigitsValidator", ""
+        + "package gen;\n"
+        + "public class DigitsValidator\n"
+        + "    implements validator.ConstraintValidator<Digits, String> {\n"
+        + "  public Class<Digits> annotationType() {\n"
+        + "    return Digits.class;\n"
+        + "  }\n"
+        + "  public Class<String> valueType() {\n"
+        + "    return String.class;\n"
+        + "  }\n"
+        + "  public boolean isValid(Digits digits, String value) {\n"
+        + "    return value.matches(\"[0-9]{\" + digits.length() + \"}\");\n"
+        + "  }\n"
+        + "  public String getMessage(Digits digits) {\n"
+        + "    return \"Must be \" + digits.length() + \" digits\";\n"
+        + "  }\n"
+        + "}\n", "Code", ""
+        + "package gen;\n"
+        + "import validator.*;\n"
+        + "import java.util.List;\n"
+        + "@Constrained\n"
+        + "public class Code {\n"
+        + "  final List<@Digits(length = 4) String> pins;\n"
+        + "  public Code(List<String> pins) {\n"
+        + "    this.pins = pins;\n"
+        + "  }\n"
+        + "}\n");
+    Files.createDirectories(dir.resolve("classes/META-INF/services"));
+    Files.writeString(dir.resolve("classes/META-INF/services/validator.ConstraintValidator"),
+        "gen.DigitsValidator\n");
+    Class<?> codeClass = loader.loadClass("gen.Code");
+    // Custom constraints are read with reflection
+    assertThrows(ClassNotFoundException.class, () -> loader.loadClass("gen.Code_ConstrainedPlan"));
+    assertFalse(ValidationPlan.of(codeClass, AccessMode.GENERATED).isGenerated());
+    Object code = codeClass.getConstructor(List.class).newInstance(List.of("1234", "12a4"));
+    Set<ValidationError> errors = new MyValidator().validate(code);
+    assertEquals(1, errors.size());
+    ValidationError error = errors.iterator().next();
+    assertEquals("pins[1]", error.getPath());
+    assertEquals("Must be 4 digits", error.getMessage());
+  }
+}
@@ -2,12 +2,25 @@ package validator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -586,4 +599,1043 @@ class MyValidatorTest {
     assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("list[2]")));
     assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("list[1][2]")));
   }
-}
\ No newline at end of file
+
+  @Test
+  void validationPlanIsCached() {
+    assertSame(ValidationPlan.of(GuestForm.class, AccessMode.REFLECTION),
+        ValidationPlan.of(GuestForm.class, AccessMode.REFLECTION));
+    assertFalse(ValidationPlan.of(Unrelated.class, AccessMode.REFLECTION).isConstrained());
+    // The same plan is reused, so repeated validation gives the same result
+    GuestForm wrongGuestForm = new GuestForm("", null, -19);
+    assertEquals(3, val.validate(wrongGuestForm).size());
+    assertEquals(3, val.validate(wrongGuestForm).size());
+  }
+
+  @Test
+  void validateInheritedFields() {
+    abstract class Named {
+
+      @NotBlank
+      private final String name;
+
+      Named(String name) {
+        this.name = name;
+      }
+    }
+    abstract class Aged extends Named {
+
+      @Positive
+      final int age;
+
+      Aged(String name, int age) {
+        super(name);
+        this.age = age;
+      }
+    }
+    @Constrained
+    class Person extends Aged {
+
+      @NotNull
+      final String email;
+
+      Person(String name, int age, String email) {
+        super(name, age);
+        this.email = email;
+      }
+    }
+    FieldPlan[] fields = ValidationPlan.of(Person.class, AccessMode.REFLECTION).getFields();
+    assertEquals(3, fields.length);
+    // Base class fields come first
+    assertEquals("name", fields[0].getName());
+    assertEquals("age", fields[1].getName());
+    assertEquals("email", fields[2].getName());
+    Set<ValidationError> errors = val.validate(new Person(" ", -1, null));
+    assertEquals(3, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("name")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("age")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("email")));
+    assertTrue(new MyValidator(ValidatorConfig.defaults()
+        .withAccessMode(AccessMode.REFLECTION)).isValid(new Person("Ann", 30, "a@b.c")));
+    // Fields of JDK classes can't be read, so only the fields below them are checked
+    @Constrained
+    class Tags extends ArrayList<String> {
+
+      private static final long serialVersionUID = 1L;
+
+      @NotBlank
+      final String owner;
+
+      Tags(String owner) {
+        this.owner = owner;
+      }
+    }
+    @Constrained
+    class Failure extends RuntimeException {
+
+      private static final long serialVersionUID = 1L;
+
+      @Positive
+      final int code;
+
+      Failure(int code) {
+        this.code = code;
+      }
+    }
+    assertEquals(List.of("serialVersionUID", "owner"),
+        Arrays.stream(ValidationPlan.of(Tags.class, AccessMode.REFLECTION).getFields())
+            .map(FieldPlan::getName).collect(Collectors.toList()));
+    assertEquals("owner", val.validate(new Tags(" ")).iterator().next().getPath());
+    assertEquals("code", val.validate(new Failure(-1)).iterator().next().getPath());
+    assertTrue(new MyValidator(ValidatorConfig.defaults()
+        .withAccessMode(AccessMode.REFLECTION)).isValid(new Failure(1)));
+  }
+
+  @Test
+  void validateProperties() {
+    List<GuestForm> guests = List.of(
+        new GuestForm(null, "Def", 21),
+        new GuestForm("", "Ijk", -3),
+        new GuestForm("Lmn", "Opq", 250));
+    BookingForm bookingForm = new BookingForm(guests, List.of("TV", "Piano"), "Apartment",
+        new Unrelated(-1));
+    MyValidator validator = new MyValidator();
+    Set<ValidationError> errors = validator.validateProperty(bookingForm, "guests[1].age");
+    assertEquals(1, errors.size());
+    assertEquals("guests[1].age", errors.iterator().next().getPath());
+    assertEquals(2, validator.validateProperty(bookingForm, "guests[1]").size());
+    assertEquals(4, validator.validateProperty(bookingForm, "guests").size());
+    assertEquals(6, validator.validateProperty(bookingForm, "").size());
+    // Paths inside other paths are validated once
+    errors = validator.validateProperties(bookingForm,
+        List.of("propertyType", "guests[0]", "guests[0].firstName", "amenities[1]"));
+    assertEquals(Set.of("propertyType", "guests[0].firstName", "amenities[1]"),
+        errors.stream().map(ValidationError::getPath).collect(Collectors.toSet()));
+    // The same errors as filtered full validation
+    Validator filtering = object -> validator.validate(object);
+    for (String path : List.of("guests[2]", "guests[0].lastName", "amenities", "unrelated")) {
+      assertEquals(
+          filtering.validateProperty(bookingForm, path).stream()
+              .map(x -> x.getPath() + x.getMessage()).collect(Collectors.toList()),
+          validator.validateProperty(bookingForm, path).stream()
+              .map(x -> x.getPath() + x.getMessage()).collect(Collectors.toList()), path);
+    }
+    // Nothing at the path
+    assertTrue(validator.validateProperty(bookingForm, "guests[7].age").isEmpty());
+    assertThrows(ValidationException.class,
+        () -> validator.validateProperty(bookingForm, "guests[0].nickname"));
+    assertThrows(ValidationException.class,
+        () -> validator.validateProperty(bookingForm, "propertyType[0]"));
+  }
+
+  @Test
+  void validatePropertiesInContainers() {
+    @Constrained
+    class Temp {
+
+      final Map<Integer, @NotNull List<@Positive Integer>> scores = new LinkedHashMap<>();
+      final Optional<GuestForm> guest = Optional.of(new GuestForm("", "Abc", 20));
+      final Set<@NotBlank String> tags = new LinkedHashSet<>(List.of("a", " "));
+    }
+    Temp temp = new Temp();
+    temp.scores.put(1, List.of(1, -2));
+    temp.scores.put(2, null);
+    MyValidator validator = new MyValidator();
+    assertEquals("scores[1][1]",
+        validator.validateProperty(temp, "scores[1]").iterator().next().getPath());
+    assertEquals("scores[2]",
+        validator.validateProperty(temp, "scores[2]").iterator().next().getPath());
+    assertEquals("guest.firstName",
+        validator.validateProperty(temp, "guest.firstName").iterator().next().getPath());
+    assertEquals("tags[1]",
+        validator.validateProperty(temp, "tags[1]").iterator().next().getPath());
+    assertTrue(validator.validateProperty(temp, "tags[0]").isEmpty());
+  }
+
+  @Test
+  void cacheResultsOfImmutableObjects() {
+    MyValidator validator = new MyValidator(ValidatorConfig.defaults().withResultCacheSize(2));
+    Point first = new Point(-1, -1, List.of("a"));
+    Point second = new Point(1, -1, List.of("a"));
+    Point third = new Point(1, 1, List.of("a"));
+    Set<ValidationError> errors = validator.validate(first);
+    assertEquals(1, errors.size());
+    assertSame(errors, validator.validate(first));
+    assertFalse(validator.isValid(first));
+    assertTrue(validator.isValid(second));
+    // isValid() stops at the first error, so its results are not cached
+    Set<ValidationError> secondErrors = validator.validate(second);
+    assertTrue(secondErrors.isEmpty());
+    assertSame(secondErrors, validator.validate(second));
+    Map<Integer, Set<ValidationError>> results = validator.validateAll(List.of(first, third));
+    assertSame(errors, results.get(0));
+    assertSame(results.get(1), validator.validate(third));
+    // The least recently used result is dropped
+    validator.validate(second);
+    assertNotSame(errors, validator.validate(first));
+    // Equal objects are cached separately
+    Point copy = new Point(-1, -1, List.of("a"));
+    assertNotSame(validator.validate(first), validator.validate(copy));
+    // Failed values that aren't plain values might reference the object, so they aren't kept
+    Point unlabeled = new Point(1, -1, List.of());
+    assertNotSame(validator.validate(unlabeled), validator.validate(unlabeled));
+    // Mutable objects are always validated
+    Related related = new Related(-1, -1, "Title", "Author", "Legend", List.of("a"), 1, "Box");
+    assertNotSame(validator.validate(related), validator.validate(related));
+    GuestForm guestForm = new GuestForm("", "Abc", 20);
+    assertNotSame(validator.validate(guestForm), validator.validate(guestForm));
+    assertThrows(ValidationException.class,
+        () -> ValidatorConfig.defaults().withResultCacheSize(-1));
+  }
+
+  @Test
+  void measureValidation() {
+    @Constrained
+    class Temp {
+
+      @NotBlank
+      final String name = "Name";
+    }
+    ValidationHistogram histogram = new ValidationHistogram();
+    MyValidator validator = new MyValidator(ValidatorConfig.defaults().withListener(histogram));
+    List<GuestForm> guests = List.of(
+        new GuestForm(null, "Def", 21),
+        new GuestForm("", "Ijk", -3));
+    BookingForm bookingForm = new BookingForm(guests, List.of("TV", "Piano"), "Apartment",
+        new Unrelated(-1));
+    assertEquals(5, validator.validate(bookingForm).size());
+    assertTrue(validator.isValid(new GuestForm("Abc", "Def", 20)));
+    assertEquals(Set.of(BookingForm.class, GuestForm.class), histogram.getValidatedClasses());
+    assertEquals(1, histogram.getValidationCount(BookingForm.class));
+    // The booking form and both guests, with all of their fields
+    assertEquals(3, histogram.getObjectCount(BookingForm.class));
+    assertEquals(10, histogram.getFieldCount(BookingForm.class));
+    assertEquals(5, histogram.getViolationCount(BookingForm.class));
+    assertEquals(0, histogram.getViolationCount(GuestForm.class));
+    assertEquals(2, histogram.getAnnotationViolationCount(AnyOf.class));
+    assertEquals(1, histogram.getAnnotationViolationCount(NotNull.class));
+    assertEquals(1, histogram.getAnnotationViolationCount(NotBlank.class));
+    assertEquals(1, histogram.getAnnotationViolationCount(InRange.class));
+    assertEquals(0, histogram.getAnnotationViolationCount(Positive.class));
+    long nanos = histogram.getTotalNanos(BookingForm.class);
+    assertTrue(histogram.getPercentileNanos(BookingForm.class, 100) >= nanos);
+    assertTrue(histogram.getPercentileNanos(BookingForm.class, 50) <= 2 * nanos);
+    assertEquals(0, histogram.getPercentileNanos(Temp.class, 99));
+    assertThrows(ValidationException.class, () -> histogram.getPercentileNanos(Temp.class, 101));
+    // Plan of the guest form was built by the first validation at the latest
+    long misses = histogram.getPlanMisses();
+    long hits = histogram.getPlanHits();
+    assertTrue(hits >= 2);
+    validator.validate(new Temp());
+    assertEquals(misses + 1, histogram.getPlanMisses());
+    hits = histogram.getPlanHits();
+    validator.validate(new Temp());
+    assertEquals(misses + 1, histogram.getPlanMisses());
+    assertTrue(histogram.getPlanHits() > hits);
+    assertSame(ValidationListener.none(), ValidatorConfig.defaults().getListener());
+    assertThrows(ValidationException.class, () -> ValidatorConfig.defaults().withListener(null));
+  }
+
+  @Test
+  void shareResultsWithoutErrors() {
+    @Constrained
+    class Temp {
+
+      final Map<String, @NotNull Integer> scores;
+
+      Temp(Map<String, Integer> scores) {
+        this.scores = scores;
+      }
+    }
+    GuestForm valid = new GuestForm("Abc", "Def", 20);
+    assertSame(val.validate(valid), val.validate(new GuestForm("Ghi", "Jkl", 30)));
+    assertTrue(val.validate(valid).isEmpty());
+    assertTrue(val.validateAll(List.of(valid, valid)).isEmpty());
+    // Errors with the same message, path and failed value are equal
+    Set<ValidationError> errors = val.validate(new GuestForm(null, "", 20));
+    Set<ValidationError> again = val.validate(new GuestForm(null, "", 20));
+    assertNotSame(errors, again);
+    assertEquals(errors, again);
+    assertEquals(errors.hashCode(), again.hashCode());
+    assertTrue(errors.contains(new MyValidationError("Must not be blank", "lastName", "")));
+    assertFalse(errors.contains(new MyValidationError("Must not be blank", "lastName", " ")));
+    // Paths are compared as text without rendering them
+    PropertyPath keyPath = PropertyPath.root().field("a").key(12).field("b");
+    assertEquals("a[12].b".hashCode(), keyPath.hashCode());
+    assertEquals("[7]".hashCode(), PropertyPath.root().index(7).hashCode());
+    assertEquals(new MyValidationError("", "a[12].b", null),
+        new MyValidationError("", keyPath, null));
+    assertEquals(new MyValidationError("", PropertyPath.parse("a[12].b"), null),
+        new MyValidationError("", keyPath, null));
+    assertEquals(new MyValidationError("", "a[12].b", null).hashCode(),
+        new MyValidationError("", keyPath, null).hashCode());
+    assertNotEquals(new MyValidationError("", "a[12].c", null),
+        new MyValidationError("", keyPath, null));
+    // A null key is reported as "null", so both entries fail at the same path
+    Map<String, Integer> scores = new HashMap<>();
+    scores.put(null, null);
+    scores.put("null", null);
+    ViolationSet duplicates = new MyValidator().validate(new Temp(scores));
+    assertEquals(1, duplicates.size());
+    assertEquals(1, duplicates.getTotalCount());
+    assertFalse(duplicates.isTruncated());
+    assertEquals("scores[null]", duplicates.iterator().next().getPath());
+  }
+
+  interface OnCreate {
+  }
+
+  interface OnUpdate extends Default {
+  }
+
+  @Test
+  void validateGroups() {
+    @Constrained
+    class Temp {
+
+      @NotNull(groups = OnUpdate.class)
+      final Integer id;
+      @NotBlank
+      @Size(min = 3, max = 10, groups = OnCreate.class)
+      final String name;
+      final List<@Positive(groups = {OnCreate.class, OnUpdate.class}) Integer> scores;
+      final GuestForm guest = new GuestForm(null, "Abc", 20);
+
+      Temp(Integer id, String name, List<Integer> scores) {
+        this.id = id;
+        this.name = name;
+        this.scores = scores;
+      }
+    }
+    Temp temp = new Temp(null, " ", List.of(-1));
+    MyValidator validator = new MyValidator();
+    assertEquals(Set.of("name", "guest.firstName"), validator.validate(temp).stream()
+        .map(ValidationError::getPath).collect(Collectors.toSet()));
+    assertEquals(validator.validate(temp), validator.validate(temp, Default.class));
+    // Constraints of nested objects are selected by the same groups
+    assertEquals(Set.of("name", "scores[0]"), validator.validate(temp, OnCreate.class).stream()
+        .map(ValidationError::getPath).collect(Collectors.toSet()));
+    // A group that extends Default selects constraints without groups too
+    assertEquals(Set.of("id", "name", "scores[0]", "guest.firstName"),
+        validator.validate(temp, OnUpdate.class).stream()
+            .map(ValidationError::getPath).collect(Collectors.toSet()));
+    assertEquals(4, validator.validate(temp, OnCreate.class, Default.class).size());
+    assertEquals(5, validator.validate(temp, OnCreate.class, OnUpdate.class).size());
+    // Plans are built once per set of groups
+    ValidationPlan plan = ValidationPlan.of(Temp.class, AccessMode.REFLECTION);
+    assertSame(plan, plan.forGroups(Groups.of(Default.class)));
+    assertSame(plan.forGroups(Groups.of(OnCreate.class, Default.class)),
+        plan.forGroups(Groups.of(Default.class, OnCreate.class, OnCreate.class)));
+    assertThrows(ValidationException.class, () -> validator.validate(temp, (Class<?>) null));
+    // Properties are validated with the constraints of given groups
+    assertTrue(validator.validateProperty(temp, "id").isEmpty());
+    assertEquals(1, validator.validateProperty(temp, "id", OnUpdate.class).size());
+    assertEquals(1, validator.validateProperty(temp, "name", OnCreate.class).size());
+    assertTrue(validator.validateProperty(temp, "guest", OnCreate.class).isEmpty());
+    assertEquals(Set.of("name", "scores[0]"),
+        validator.validateProperties(temp, List.of("name", "scores"), OnCreate.class).stream()
+            .map(ValidationError::getPath).collect(Collectors.toSet()));
+    // Validators that don't select groups only check Default
+    Validator simple = object -> validator.validate(object);
+    assertEquals(2, simple.validate(temp, Default.class).size());
+    assertThrows(ValidationException.class, () -> simple.validate(temp, OnCreate.class));
+    assertEquals(1, simple.validateProperty(temp, "name", Default.class).size());
+    assertThrows(ValidationException.class,
+        () -> simple.validateProperty(temp, "name", OnCreate.class));
+  }
+
+  @CustomConstraint
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE_USE)
+  @interface Email {
+
+    Class<?>[] groups() default {};
+  }
+
+  @CustomConstraint
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE_USE)
+  @interface Even {
+
+    String message() default "Must be even";
+  }
+
+  @CustomConstraint
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target(ElementType.TYPE_USE)
+  @interface Unchecked {
+
+    Class<?>[] groups() default {};
+  }
+
+  @Test
+  void validateCustomConstraints() {
+    ConstraintValidators.register(new ConstraintValidator<Email, String>() {
+      @Override
+      public Class<Email> annotationType() {
+        return Email.class;
+      }
+
+      @Override
+      public Class<String> valueType() {
+        return String.class;
+      }
+
+      @Override
+      public boolean isValid(Email annotation, String value) {
+        return value.indexOf('@') > 0;
+      }
+
+      @Override
+      public String getMessage(Email annotation) {
+        return "Must be an email address";
+      }
+    });
+    ConstraintValidators.register(new ConstraintValidator<Even, Number>() {
+      @Override
+      public Class<Even> annotationType() {
+        return Even.class;
+      }
+
+      @Override
+      public Class<Number> valueType() {
+        return Number.class;
+      }
+
+      @Override
+      public boolean isValid(Even annotation, Number value) {
+        return value.longValue() % 2 == 0;
+      }
+
+      @Override
+      public String getMessage(Even annotation) {
+        return annotation.message();
+      }
+    });
+    @Constrained
+    class Temp {
+
+      @NotNull
+      @Email
+      final String email;
+      @Email(groups = OnCreate.class)
+      final String backupEmail = "backup";
+      final List<@Even Integer> numbers;
+      @Even
+      final int count;
+
+      Temp(String email, List<Integer> numbers, int count) {
+        this.email = email;
+        this.numbers = numbers;
+        this.count = count;
+      }
+    }
+    ValidationHistogram histogram = new ValidationHistogram();
+    MyValidator validator = new MyValidator(ValidatorConfig.defaults().withListener(histogram));
+    Set<ValidationError> errors = validator.validate(new Temp("guest", List.of(2, 3), 5));
+    assertEquals(Set.of("email: Must be an email address", "numbers[1]: Must be even",
+            "count: Must be even"),
+        errors.stream().map(x -> x.getPath() + ": " + x.getMessage()).collect(Collectors.toSet()));
+    assertEquals(2, histogram.getAnnotationViolationCount(Even.class));
+    assertTrue(validator.isValid(new Temp("guest@example.com", List.of(2), 4)));
+    // Validators don't get nulls
+    assertEquals(1, validator.validate(new Temp(null, List.of(), 0)).size());
+    // Groups are read from the custom annotation
+    assertEquals(Set.of("backupEmail"), validator.validate(new Temp("a@b", List.of(), 0),
+        OnCreate.class).stream().map(ValidationError::getPath).collect(Collectors.toSet()));
+    @Constrained
+    class Misplaced {
+
+      final @Email Integer number = 1;
+    }
+    assertThrows(ValidationException.class, () -> validator.validate(new Misplaced()));
+    @Constrained
+    class Unknown {
+
+      final @Unchecked String text = "";
+    }
+    assertThrows(ValidationException.class, () -> validator.validate(new Unknown()));
+    // Constraints of other groups don't need a validator
+    @Constrained
+    class Pending {
+
+      final @Unchecked(groups = OnCreate.class) String text = "";
+    }
+    assertTrue(validator.validate(new Pending()).isEmpty());
+    assertThrows(ValidationException.class, () -> validator.validate(new Pending(), OnCreate.class));
+    assertThrows(ValidationException.class, () -> ConstraintValidators.register(null));
+    // Only annotations marked with @CustomConstraint get validators, once
+    assertThrows(ValidationException.class, () -> ConstraintValidators.register(
+        new ConstraintValidator<NotNull, Object>() {
+          @Override
+          public Class<NotNull> annotationType() {
+            return NotNull.class;
+          }
+
+          @Override
+          public Class<Object> valueType() {
+            return Object.class;
+          }
+
+          @Override
+          public boolean isValid(NotNull annotation, Object value) {
+            return true;
+          }
+
+          @Override
+          public String getMessage(NotNull annotation) {
+            return "";
+          }
+        }));
+    assertThrows(ValidationException.class, () -> ConstraintValidators.register(
+        new ConstraintValidator<Email, String>() {
+          @Override
+          public Class<Email> annotationType() {
+            return Email.class;
+          }
+
+          @Override
+          public Class<String> valueType() {
+            return String.class;
+          }
+
+          @Override
+          public boolean isValid(Email annotation, String value) {
+            return true;
+          }
+
+          @Override
+          public String getMessage(Email annotation) {
+            return "";
+          }
+        }));
+  }
+
+  @Test
+  void validateRawList() {
+    @Constrained
+    class Temp {
+
+      @SuppressWarnings("rawtypes")
+      final List list;
+
+      Temp(List<?> list) {
+        this.list = list;
+      }
+    }
+    Temp temp = new Temp(List.of(new GuestForm(null, "Ford", 57)));
+    Set<ValidationError> errors = val.validate(temp);
+    assertEquals(1, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("list[0].firstName")));
+  }
+
+  @Test
+  void validateConcurrently() throws Exception {
+    List<GuestForm> guests = List.of(
+        new GuestForm(null, "Def", 21),
+        new GuestForm("", "Ijk", -3));
+    BookingForm bookingForm = new BookingForm(guests, List.of("TV", "Piano"), "Apartment",
+        new Unrelated(-1));
+    // One validator instance is shared by all threads
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Set<ValidationError>>> results = new ArrayList<>();
+      for (int i = 0; i < 200; ++i) {
+        results.add(executor.submit(() -> val.validate(bookingForm)));
+      }
+      for (Future<Set<ValidationError>> result : results) {
+        Set<ValidationError> errors = result.get();
+        assertEquals(5, errors.size());
+        assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[1].age")));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void validateWithReflection() {
+    Validator reflectiveValidator = new MyValidator(AccessMode.REFLECTION);
+    List<GuestForm> guests = List.of(
+        new GuestForm(null, "Def", 21),
+        new GuestForm("", "Ijk", -3));
+    BookingForm bookingForm = new BookingForm(guests, List.of("TV", "Piano"), "Apartment",
+        new Unrelated(-1));
+    Set<ValidationError> errors = reflectiveValidator.validate(bookingForm);
+    assertEquals(5, errors.size());
+    // Primitive is boxed to its own wrapper type when reported
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[1].age")
+        && Integer.valueOf(-3).equals(x.getFailedValue())));
+    assertEquals(2, reflectiveValidator.validate(new Wrapper(-25, guests.get(0))).size());
+  }
+
+  @Test
+  void validatePrimitives() {
+    @Constrained
+    class Temp {
+
+      @Positive
+      final byte b;
+      @Negative
+      final short s;
+      @InRange(min = 0, max = 10)
+      final long l;
+      @NotNull
+      final int i;
+
+      Temp(byte b, short s, long l, int i) {
+        this.b = b;
+        this.s = s;
+        this.l = l;
+        this.i = i;
+      }
+    }
+    Temp temp = new Temp((byte) 0, (short) 1, 11L, 0);
+    assertEquals(3, val.validate(temp).size());
+    assertEquals(3, new MyValidator(AccessMode.REFLECTION).validate(temp).size());
+    assertTrue(val.validate(temp).stream()
+        .anyMatch(x -> Long.valueOf(11).equals(x.getFailedValue())));
+  }
+
+  @Test
+  void constraintsAreResolvedOnce() {
+    FieldPlan[] fields = ValidationPlan.of(Related.class, AccessMode.REFLECTION).getFields();
+    // Messages and parameters are taken from annotations when the plan is built
+    assertEquals("Size must be in range between 1 and 5",
+        fields[5].getConstraints()[0].getMessage());
+    assertEquals("Must be one of 'Linear', 'Box', 'Heatmap', 'Histogram', 'Violin'",
+        fields[7].getConstraints()[0].getMessage());
+    // Marker annotations share a single constraint
+    FieldPlan[] guestFields = ValidationPlan.of(GuestForm.class, AccessMode.REFLECTION)
+        .getFields();
+    assertSame(guestFields[0].getConstraints()[0], guestFields[1].getConstraints()[0]);
+    assertTrue(fields[5].getConstraints()[0].isValid(List.of("a"), "List"));
+    assertFalse(fields[5].getConstraints()[0].isValid(List.of(), "List"));
+  }
+
+  @Test
+  void validateNestedPaths() {
+    @Constrained
+    class Outer {
+
+      final List<List<BookingForm>> bookings;
+      final Wrapper wrapper;
+
+      Outer(List<List<BookingForm>> bookings, Wrapper wrapper) {
+        this.bookings = bookings;
+        this.wrapper = wrapper;
+      }
+    }
+    BookingForm bookingForm = new BookingForm(List.of(new GuestForm("A", "B", 201)),
+        List.of("TV"), "House", new Unrelated(1));
+    Outer outer = new Outer(List.of(List.of(), List.of(bookingForm)),
+        new Wrapper(1, new GuestForm("A", " ", 1)));
+    Set<ValidationError> errors = val.validate(outer);
+    assertEquals(2, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("bookings[1][0].guests[0].age")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("wrapper.guestForm.lastName")));
+  }
+
+  @Test
+  void validateAnyOfWithManyOptions() {
+    @Constrained
+    class Temp {
+
+      final List<@AnyOf({"AUD", "BRL", "CAD", "CHF", "CNY", "EUR", "GBP", "INR", "JPY", "KRW",
+          "MXN", "NOK", "RUB", "SEK", "USD"}) String> currencies;
+      @AnyOf({"A", "B"})
+      final String letter;
+
+      Temp(List<String> currencies, String letter) {
+        this.currencies = currencies;
+        this.letter = letter;
+      }
+    }
+    List<String> currencies = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      currencies.add(i % 100 == 0 ? "XXX" : (i % 2 == 0 ? "USD" : "AUD"));
+    }
+    Set<ValidationError> errors = val.validate(new Temp(currencies, "C"));
+    assertEquals(11, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("currencies[900]")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("letter")));
+    assertEquals(0, val.validate(new Temp(List.of("SEK", "EUR"), "B")).size());
+  }
+
+  @Test
+  void validateFailFast() {
+    List<GuestForm> guests = new ArrayList<>();
+    for (int i = 0; i < 3; ++i) {
+      guests.add(new GuestForm("", null, -19));
+    }
+    BookingForm booking = new BookingForm(guests, List.of("Pool", "Gym"), "Flat",
+        new Unrelated(-1));
+    Validator failFastVal = new MyValidator(ValidatorConfig.defaults().withFailFast(true));
+    Set<ValidationError> errors = failFastVal.validate(booking);
+    assertEquals(1, errors.size());
+    assertTrue(errors.iterator().next().getPath().startsWith("guests[0]."));
+    assertFalse(failFastVal.isValid(booking));
+    assertFalse(val.isValid(booking));
+    assertTrue(val.isValid(new GuestForm("Daria", "Skrypina", 19)));
+    // Default validator still collects everything
+    assertEquals(12, val.validate(booking).size());
+  }
+
+  @Test
+  void validateWithMaxViolations() {
+    @Constrained
+    class Temp {
+
+      final List<@NotBlank String> names;
+
+      Temp(List<String> names) {
+        this.names = names;
+      }
+    }
+    Temp temp = new Temp(Collections.nCopies(1000, ""));
+    ViolationSet errors = new MyValidator(ValidatorConfig.defaults().withMaxViolations(10))
+        .validate(temp);
+    assertEquals(10, errors.size());
+    assertTrue(errors.isTruncated());
+    assertEquals(11, errors.getTotalCount());
+    ViolationSet counted = new MyValidator(ValidatorConfig.defaults().withMaxViolations(10)
+        .withCountingBeyondLimit(true)).validate(temp);
+    assertEquals(10, counted.size());
+    assertTrue(counted.isTruncated());
+    assertEquals(1000, counted.getTotalCount());
+    ViolationSet all = new MyValidator().validate(temp);
+    assertEquals(1000, all.size());
+    assertFalse(all.isTruncated());
+    assertThrows(UnsupportedOperationException.class, () -> all.remove(all.iterator().next()));
+    assertThrows(ValidationException.class,
+        () -> ValidatorConfig.defaults().withMaxViolations(0));
+  }
+
+  @Test
+  void validateLargeListInParallel() {
+    @Constrained
+    class Temp {
+
+      final List<@NotNull GuestForm> guests;
+
+      Temp(List<GuestForm> guests) {
+        this.guests = guests;
+      }
+    }
+    List<GuestForm> guests = new ArrayList<>();
+    for (int i = 0; i < 5000; ++i) {
+      guests.add(i % 7 == 0 ? null : new GuestForm(i % 3 == 0 ? "" : "Daria", "Skrypina", 19));
+    }
+    Temp temp = new Temp(guests);
+    List<String> expected = val.validate(temp).stream()
+        .map(ValidationError::getPath).collect(Collectors.toList());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Validator parallelVal = new MyValidator(ValidatorConfig.defaults()
+          .withParallelThreshold(300).withExecutor(executor));
+      List<String> first = parallelVal.validate(temp).stream()
+          .map(ValidationError::getPath).collect(Collectors.toList());
+      List<String> second = parallelVal.validate(new Temp(new LinkedList<>(guests))).stream()
+          .map(ValidationError::getPath).collect(Collectors.toList());
+      // Same paths in the same order as sequential validation
+      assertEquals(expected, first);
+      assertEquals(expected, second);
+      assertTrue(first.contains("guests[7]"));
+      assertTrue(first.contains("guests[4995].firstName"));
+      ViolationSet limited = new MyValidator(ValidatorConfig.defaults()
+          .withParallelThreshold(300).withMaxViolations(5)).validate(temp);
+      assertEquals(expected.subList(0, 5), limited.stream()
+          .map(ValidationError::getPath).collect(Collectors.toList()));
+      assertTrue(limited.isTruncated());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void stopChunksAfterTheFirstDoneOne() {
+    @Constrained
+    class Temp {
+
+      final List<GuestForm> guests;
+
+      Temp(List<GuestForm> guests) {
+        this.guests = guests;
+      }
+    }
+    List<GuestForm> guests = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      guests.add(new GuestForm(i == 20 || i == 150 || i == 160 ? "" : "Daria", "Skrypina", 19));
+    }
+    int[] objects = new int[1];
+    ValidationListener listener = new ValidationListener() {
+      @Override
+      public void onValidation(Class<?> type, long nanos, int objectCount, int fields,
+          int violations) {
+        objects[0] += objectCount;
+      }
+    };
+    // Chunks after the first one run on the calling thread before it, and stop at its error.
+    ValidatorConfig config = ValidatorConfig.defaults().withParallelThreshold(100)
+        .withExecutor(Runnable::run).withListener(listener);
+    ViolationSet errors = new MyValidator(config.withFailFast(true)).validate(new Temp(guests));
+    assertEquals(List.of("guests[20].firstName"), errors.stream()
+        .map(ValidationError::getPath).collect(Collectors.toList()));
+    assertTrue(objects[0] < 100, "Checked objects: " + objects[0]);
+    objects[0] = 0;
+    errors = new MyValidator(config.withMaxViolations(1)).validate(new Temp(guests));
+    assertEquals(List.of("guests[20].firstName"), errors.stream()
+        .map(ValidationError::getPath).collect(Collectors.toList()));
+    assertTrue(errors.isTruncated());
+    // Without fail-fast, a chunk is done once it finds more errors than the limit.
+    assertTrue(objects[0] < 200, "Checked objects: " + objects[0]);
+  }
+
+  @Test
+  void validateSharedObjectsInParallel() {
+    @Constrained
+    class Holder {
+
+      final GuestForm guest;
+
+      Holder(GuestForm guest) {
+        this.guest = guest;
+      }
+    }
+    @Constrained
+    class Temp {
+
+      final List<Holder> holders;
+      final GuestForm after;
+
+      Temp(List<Holder> holders, GuestForm after) {
+        this.holders = holders;
+        this.after = after;
+      }
+    }
+    GuestForm shared = new GuestForm("", "Skrypina", 19);
+    List<Holder> holders = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      // The same invalid guest in every chunk, and the same holder twice
+      holders.add(i % 250 == 0 ? new Holder(shared)
+          : i == 901 ? holders.get(900) : new Holder(new GuestForm(i == 900 ? "" : "Daria",
+              "Skrypina", 19)));
+    }
+    Temp temp = new Temp(holders, shared);
+    List<String> expected = val.validate(temp).stream()
+        .map(ValidationError::getPath).collect(Collectors.toList());
+    assertEquals(List.of("holders[0].guest.firstName", "holders[900].guest.firstName"), expected);
+    ViolationSet errors = new MyValidator(ValidatorConfig.defaults().withParallelThreshold(100))
+        .validate(temp);
+    assertEquals(expected, errors.stream().map(ValidationError::getPath)
+        .collect(Collectors.toList()));
+    assertEquals(2, errors.getTotalCount());
+  }
+
+  @Test
+  void validateBatch() {
+    List<Object> batch = new ArrayList<>();
+    for (int i = 0; i < 1000; ++i) {
+      batch.add(i % 10 == 3 ? new GuestForm("", null, 19) : new GuestForm("Daria", "Skrypina", 19));
+    }
+    batch.add(new Wrapper(-1, null));
+    Map<Integer, Set<ValidationError>> results = val.validateAll(batch);
+    assertEquals(101, results.size());
+    assertEquals(2, results.get(3).size());
+    assertEquals(1, results.get(1000).size());
+    assertFalse(results.containsKey(0));
+    assertEquals(List.of(3, 13, 23), results.keySet().stream().limit(3)
+        .collect(Collectors.toList()));
+    Validator parallelVal = new MyValidator(ValidatorConfig.defaults().withParallelThreshold(64));
+    Map<Integer, Set<ValidationError>> parallelResults = parallelVal.validateAll(batch);
+    assertEquals(new ArrayList<>(results.keySet()), new ArrayList<>(parallelResults.keySet()));
+    assertEquals("firstName", parallelResults.get(993).stream()
+        .filter(x -> x.getMessage().equals("Must not be blank")).findAny().get().getPath());
+    batch.add(null);
+    assertThrows(ValidationException.class, () -> parallelVal.validateAll(batch));
+  }
+
+  @Test
+  void validateCyclicGraph() {
+    @Constrained
+    class Node {
+
+      @NotBlank
+      final String name;
+      Node parent;
+      final List<Node> children = new ArrayList<>();
+
+      Node(String name) {
+        this.name = name;
+      }
+    }
+    Node root = new Node("");
+    Node child = new Node(" ");
+    Node shared = new Node("");
+    child.parent = root;
+    root.children.add(child);
+    root.children.add(shared);
+    child.children.add(shared);
+    shared.parent = child;
+    Set<ValidationError> errors = val.validate(root);
+    // Every node is checked once
+    assertEquals(3, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("name")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("children[0].name")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("children[0].children[0].name")));
+    assertEquals(2, val.validateAll(List.of(root, child)).size());
+  }
+
+  @Test
+  void validateDeepGraph() {
+    @Constrained
+    class Link {
+
+      @Positive
+      final int value;
+      final Link next;
+
+      Link(int value, Link next) {
+        this.value = value;
+        this.next = next;
+      }
+    }
+    // More errors than are de-duplicated without hashing their deep paths
+    Link chain = new Link(-1, null);
+    for (int i = 0; i < 100_000; ++i) {
+      chain = new Link(i < 11 ? -1 : 1, chain);
+    }
+    Set<ValidationError> errors = val.validate(chain);
+    assertEquals(12, errors.size());
+    assertTrue(errors.stream().allMatch(x -> x.getPath().endsWith(".next.value")));
+    List<Object> lists = new ArrayList<>(List.of(new GuestForm("", "Skrypina", 19)));
+    for (int i = 0; i < 100_000; ++i) {
+      lists = new ArrayList<>(List.of(lists));
+    }
+    @Constrained
+    class Nest {
+
+      final List<?> items;
+
+      Nest(List<?> items) {
+        this.items = items;
+      }
+    }
+    errors = val.validate(new Nest(lists));
+    assertEquals(1, errors.size());
+    assertTrue(errors.iterator().next().getPath().endsWith("[0][0].firstName"));
+    Link shortChain = new Link(1, new Link(1, new Link(1, null)));
+    Validator limitedVal = new MyValidator(ValidatorConfig.defaults().withMaxDepth(1));
+    assertEquals(0, limitedVal.validate(shortChain.next).size());
+    assertThrows(ValidationException.class, () -> limitedVal.validate(shortChain));
+  }
+
+  @Test
+  void validatePropertyPaths() {
+    List<GuestForm> guests = List.of(new GuestForm("Daria", "Skrypina", 19),
+        new GuestForm("", null, 19));
+    BookingForm booking = new BookingForm(guests, List.of("TV", "Pool"), "House",
+        new Unrelated(-1));
+    Set<ValidationError> errors = val.validate(booking);
+    assertEquals(3, errors.size());
+    ValidationError error = errors.stream()
+        .filter(x -> x.getPath().equals("guests[1].lastName")).findAny().get();
+    List<PropertyPath> segments = error.getPropertyPath().getSegments();
+    assertEquals(3, segments.size());
+    assertEquals("guests", segments.get(0).getName());
+    assertTrue(segments.get(1).isIndex());
+    assertEquals(1, segments.get(1).getIndex());
+    assertEquals("lastName", segments.get(2).getName());
+    // Errors under the same object share the path to it
+    ValidationError sibling = errors.stream()
+        .filter(x -> x.getPath().equals("guests[1].firstName")).findAny().get();
+    assertSame(error.getPropertyPath().getParent(), sibling.getPropertyPath().getParent());
+    assertEquals(PropertyPath.root().field("amenities").index(1),
+        PropertyPath.parse("amenities[1]"));
+    assertEquals("a[0][12].b", PropertyPath.parse("a[0][12].b").toString());
+    assertEquals(error.getPropertyPath(),
+        new MyValidationError("", "guests[1].lastName", null).getPropertyPath());
+    assertThrows(ValidationException.class, () -> PropertyPath.parse("a..b"));
+    assertThrows(ValidationException.class, () -> PropertyPath.parse("a[]"));
+    assertTrue(PropertyPath.parse("a[x]").isKey());
+  }
+
+  @Test
+  void validateSequentialList() {
+    // A list that is only walked with its iterator
+    class SequentialList<T> extends LinkedList<T> {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public T get(int index) {
+        throw new UnsupportedOperationException();
+      }
+    }
+    SequentialList<GuestForm> guests = new SequentialList<>();
+    for (int i = 0; i < 50_000; ++i) {
+      guests.add(i % 1000 == 999 ? null : new GuestForm("Daria", i % 1000 == 1 ? "" : "Skr", 19));
+    }
+    @Constrained
+    class Temp {
+
+      final List<@NotNull GuestForm> guests;
+
+      Temp(List<GuestForm> guests) {
+        this.guests = guests;
+      }
+    }
+    Set<ValidationError> errors = val.validate(new Temp(guests));
+    assertEquals(100, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[999]")
+        && x.getMessage().equals("Must not be null")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[49001].lastName")));
+  }
+
+  @Test
+  void validateContainers() {
+    @Constrained
+    class Temp {
+
+      final Set<@NotBlank String> tags;
+      final Map<@NotBlank String, @NotNull GuestForm> guests;
+      final @Positive int[][] counts;
+      final @NotBlank String[] names;
+      final Optional<@NotBlank String> note;
+      final Optional<GuestForm> host;
+
+      Temp(Set<String> tags, Map<String, GuestForm> guests, int[][] counts, String[] names,
+          Optional<String> note, Optional<GuestForm> host) {
+        this.tags = tags;
+        this.guests = guests;
+        this.counts = counts;
+        this.names = names;
+        this.note = note;
+        this.host = host;
+      }
+    }
+    Map<String, GuestForm> guests = new LinkedHashMap<>();
+    guests.put("daria", new GuestForm("Daria", "Skrypina", 19));
+    guests.put(" ", new GuestForm("", "Skrypina", 19));
+    guests.put("none", null);
+    Temp temp = new Temp(Set.of("a", ""), guests, new int[][]{{1, 2}, {3, -4, 0}},
+        new String[]{"Daria", " "}, Optional.of(""), Optional.of(new GuestForm("D", "S", 300)));
+    Set<ValidationError> errors = val.validate(temp);
+    assertEquals(9, errors.size());
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().startsWith("tags[")
+        && "".equals(x.getFailedValue())));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[ ]")
+        && " ".equals(x.getFailedValue())));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[ ].firstName")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[none]")
+        && x.getMessage().equals("Must not be null")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("counts[1][1]")
+        && Integer.valueOf(-4).equals(x.getFailedValue())));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("counts[1][2]")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("names[1]")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("note")));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("host.age")));
+    ValidationError keyError = errors.stream()
+        .filter(x -> x.getPath().equals("guests[none]")).findAny().get();
+    assertEquals("none", keyError.getPropertyPath().getKey());
+  }
+}
@@ -0,0 +1,21 @@
+package validator;
+
+import java.util.List;
+
+// Deeply immutable -> results can be cached
+@Constrained(immutable = true)
+public final class Point {
+
+  @Positive
+  final Integer x;
+  @Negative
+  final Integer y;
+  @Size(min = 1, max = 2)
+  final List<String> labels;
+
+  public Point(Integer x, Integer y, List<String> labels) {
+    this.x = x;
+    this.y = y;
+    this.labels = List.copyOf(labels);
+  }
+}
@@ -0,0 +1,148 @@
+package validator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class StreamingValidatorTest {
+
+  StreamingValidator val = new StreamingValidator();
+
+  private static Set<String> describe(Set<ValidationError> errors) {
+    return errors.stream().map(x -> x.getPath() + ": " + x.getMessage())
+        .collect(Collectors.toSet());
+  }
+
+  // The same errors as for the bound object
+  @Test
+  void validateLikeBoundObject() {
+    String json = "{\n"
+        + "  \"guests\": [{\"firstName\": null, \"lastName\": \"Ford\", \"age\": 300}, null],\n"
+        + "  \"comment\": {\"ignored\": [1, {\"x\": \"y\"}]},\n"
+        + "  \"amenities\": [\"TV\", \"Pool\"],\n"
+        + "  \"propertyType\": \"Castle\",\n"
+        + "  \"unrelated\": {\"x\": -1}\n"
+        + "}";
+    BookingForm bookingForm = new BookingForm(
+        Arrays.asList(new GuestForm(null, "Ford", 300), null), List.of("TV", "Pool"), "Castle",
+        new Unrelated(-1));
+    Set<ValidationError> errors = val.validate(BookingForm.class, new JsonTokenizer(json));
+    assertEquals(5, errors.size());
+    assertEquals(describe(new MyValidator().validate(bookingForm)), describe(errors));
+    assertTrue(errors.stream().anyMatch(x -> x.getPath().equals("guests[0].age")
+        && Integer.valueOf(300).equals(x.getFailedValue())));
+  }
+
+  @Test
+  void validateMissingAndMismatchedFields() {
+    String json = "{\"guests\": [], \"propertyType\": 5, \"amenities\": {}}";
+    Set<ValidationError> errors = val.validate(BookingForm.class, new JsonTokenizer(json));
+    assertEquals(Set.of(
+        "guests: Size must be in range between 1 and 5",
+        "propertyType: Must be of type java.lang.String",
+        "amenities: Must be of type java.util.List",
+        "unrelated: Must not be null"), describe(errors));
+    // Mismatched types are counted as violations of @Constrained
+    ValidationHistogram histogram = new ValidationHistogram();
+    new StreamingValidator(ValidatorConfig.defaults().withListener(histogram))
+        .validate(BookingForm.class, new JsonTokenizer(json));
+    assertEquals(2, histogram.getAnnotationViolationCount(Constrained.class));
+    assertEquals(1, histogram.getAnnotationViolationCount(NotNull.class));
+    assertEquals(Set.of(Constrained.class, NotNull.class, Size.class),
+        histogram.getViolatedAnnotations());
+  }
+
+  @Test
+  void validateContainers() {
+    @Constrained
+    class Profile {
+
+      @Size(min = 1, max = 2)
+      Map<@NotBlank String, @Positive Integer> scores;
+      Optional<@NotBlank String> nickname;
+      @NotNull
+      long[] codes;
+      List<List<@InRange(min = 0, max = 9) Byte>> digits;
+    }
+    String json = "{\"scores\": {\" \": 1, \"b\": -2, \"c\": 3}, \"nickname\": \"\","
+        + " \"codes\": [1, 2], \"digits\": [[1, 10], [], [1000]]}";
+    Set<ValidationError> errors = val.validate(Profile.class, new JsonTokenizer(json));
+    assertEquals(Set.of(
+        "scores[ ]: Must not be blank",
+        "scores[b]: Must be positive (more than 0)",
+        "scores: Size must be in range between 1 and 2",
+        "nickname: Must not be blank",
+        "digits[0][1]: Value must be in range between 0 and 9",
+        "digits[2][0]: Must be of type java.lang.Byte"), describe(errors));
+    assertTrue(val.isValid(Profile.class,
+        new JsonTokenizer("{\"codes\": [], \"nickname\": null}")));
+  }
+
+  // Reading stops at the first error, so the rest of the document is never parsed
+  @Test
+  void stopEarly() {
+    String json = "{\"propertyType\": \"Castle\", \"guests\": [oops";
+    assertFalse(val.isValid(BookingForm.class, new JsonTokenizer(json)));
+    ViolationSet errors = new StreamingValidator(ValidatorConfig.defaults().withFailFast(true))
+        .validate(BookingForm.class, new JsonTokenizer(json));
+    assertEquals(1, errors.size());
+    assertEquals("propertyType", errors.iterator().next().getPath());
+    assertThrows(ValidationException.class,
+        () -> val.validate(BookingForm.class, new JsonTokenizer(json)));
+  }
+
+  @Test
+  void rejectWrongInput() {
+    assertThrows(ValidationException.class,
+        () -> val.validate(Unrelated.class, new JsonTokenizer("{}")));
+    assertThrows(ValidationException.class,
+        () -> val.validate(BookingForm.class, new JsonTokenizer("[]")));
+    assertThrows(ValidationException.class, () -> val.validate(BookingForm.class, null));
+    ValidationException e = assertThrows(ValidationException.class,
+        () -> new StreamingValidator(ValidatorConfig.defaults().withMaxDepth(1))
+            .validate(BookingForm.class, new JsonTokenizer("{\"guests\": [{}]}")));
+    assertEquals(ValidationContext.MAX_DEPTH_MSG + 1, e.getMessage());
+  }
+
+  @Test
+  void tokenize() {
+    JsonTokenizer tokenizer = new JsonTokenizer(
+        " {\"a\\u0041\\n\\\"\" : [-1.5e3, 0, true, false, null, \"\\\\x/\", {}]} ");
+    List<JsonToken> tokens = new ArrayList<>();
+    List<String> texts = new ArrayList<>();
+    JsonToken token;
+    while ((token = tokenizer.next()) != JsonToken.END_DOCUMENT) {
+      tokens.add(token);
+      if (token == JsonToken.FIELD_NAME || token == JsonToken.STRING
+          || token == JsonToken.NUMBER) {
+        texts.add(tokenizer.getText());
+      }
+    }
+    assertEquals(List.of(JsonToken.START_OBJECT, JsonToken.FIELD_NAME, JsonToken.START_ARRAY,
+        JsonToken.NUMBER, JsonToken.NUMBER, JsonToken.TRUE, JsonToken.FALSE, JsonToken.NULL,
+        JsonToken.STRING, JsonToken.START_OBJECT, JsonToken.END_OBJECT, JsonToken.END_ARRAY,
+        JsonToken.END_OBJECT), tokens);
+    assertEquals(List.of("aA\n\"", "-1.5e3", "0", "\\x/"), texts);
+  }
+
+  @Test
+  void rejectMalformedJson() {
+    for (String json : List.of("", "{\"a\" 1}", "[1,]", "{} x", "\"abc", "01", "[1 2]", "{,}",
+        "[-]", "1.", "tru", "{\"a\":1]", "\"\\q\"", "\"a\nb\"", "{\"a\":{}")) {
+      JsonTokenizer tokenizer = new JsonTokenizer(json);
+      ValidationException e = assertThrows(ValidationException.class, () -> {
+        while (tokenizer.next() != JsonToken.END_DOCUMENT) {
+          // Read the whole document
+        }
+      }, json);
+      assertTrue(e.getMessage().startsWith(JsonTokenizer.MALFORMED_MSG), json);
+    }
+  }
+}